@@ -0,0 +1,209 @@
+package com.linkedlogics.bio;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Map keeping keys and values in two arrays in insertion order. Keys are found by linear scan comparing references first, 
+ * which is faster and smaller than hashing for bio objects having only a few tags. It grows when needed but should be used
+ * only for small bio objects, see {@link BioMapFactory#arrayMap()}
+ * @author rdavudov
+ *
+ */
+public class BioArrayMap extends AbstractMap<String, Object> {
+	private String[] keys ;
+	private Object[] values ;
+	private int size ;
+
+	public BioArrayMap() {
+		this(4) ;
+	}
+
+	public BioArrayMap(int capacity) {
+		capacity = Math.max(capacity, 1) ;
+		this.keys = new String[capacity] ;
+		this.values = new Object[capacity] ;
+	}
+
+	private int indexOf(Object key) {
+		for (int i = 0; i < size; i++) {
+			if (keys[i] == key) {
+				return i ;
+			}
+		}
+		if (key != null) {
+			for (int i = 0; i < size; i++) {
+				if (key.equals(keys[i])) {
+					return i ;
+				}
+			}
+		}
+		return -1 ;
+	}
+
+	@Override
+	public Object get(Object key) {
+		int i = indexOf(key) ;
+		return i >= 0 ? values[i] : null ;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return indexOf(key) >= 0 ;
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		int i = indexOf(key) ;
+		if (i >= 0) {
+			Object old = values[i] ;
+			values[i] = value ;
+			return old ;
+		}
+		if (size == keys.length) {
+			String[] newKeys = new String[size * 2] ;
+			System.arraycopy(keys, 0, newKeys, 0, size);
+			keys = newKeys ;
+			Object[] newValues = new Object[size * 2] ;
+			System.arraycopy(values, 0, newValues, 0, size);
+			values = newValues ;
+		}
+		keys[size] = key ;
+		values[size] = value ;
+		size++ ;
+		return null ;
+	}
+
+	@Override
+	public Object remove(Object key) {
+		int i = indexOf(key) ;
+		if (i < 0) {
+			return null ;
+		}
+		Object old = values[i] ;
+		removeAt(i) ;
+		return old ;
+	}
+
+	private void removeAt(int i) {
+		int moved = size - i - 1 ;
+		if (moved > 0) {
+			System.arraycopy(keys, i + 1, keys, i, moved);
+			System.arraycopy(values, i + 1, values, i, moved);
+		}
+		size-- ;
+		keys[size] = null ;
+		values[size] = null ;
+	}
+
+	@Override
+	public int size() {
+		return size ;
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			keys[i] = null ;
+			values[i] = null ;
+		}
+		size = 0 ;
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		return new AbstractSet<Entry<String, Object>>() {
+			@Override
+			public Iterator<Entry<String, Object>> iterator() {
+				return new EntryIterator() ;
+			}
+
+			@Override
+			public int size() {
+				return size ;
+			}
+		} ;
+	}
+
+	private class EntryIterator implements Iterator<Entry<String, Object>> {
+		private int next ;
+		private int current = -1 ;
+
+		@Override
+		public boolean hasNext() {
+			return next < size ;
+		}
+
+		@Override
+		public Entry<String, Object> next() {
+			if (next >= size) {
+				throw new NoSuchElementException() ;
+			}
+			current = next++ ;
+			return new ArrayEntry(current) ;
+		}
+
+		@Override
+		public void remove() {
+			if (current < 0) {
+				throw new IllegalStateException() ;
+			}
+			removeAt(current) ;
+			next = current ;
+			current = -1 ;
+		}
+	}
+
+	/**
+	 * Entry reading and writing arrays of map
+	 */
+	private class ArrayEntry implements Entry<String, Object> {
+		private final String key ;
+		private Object value ;
+
+		ArrayEntry(int index) {
+			this.key = keys[index] ;
+			this.value = values[index] ;
+		}
+
+		@Override
+		public String getKey() {
+			return key ;
+		}
+
+		@Override
+		public Object getValue() {
+			return value ;
+		}
+
+		@Override
+		public Object setValue(Object value) {
+			Object old = this.value ;
+			this.value = value ;
+			put(key, value) ;
+			return old ;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (!(object instanceof Entry)) {
+				return false ;
+			}
+			Entry<?, ?> e = (Entry<?, ?>) object ;
+			return key.equals(e.getKey()) && (value == null ? e.getValue() == null : value.equals(e.getValue())) ;
+		}
+
+		@Override
+		public int hashCode() {
+			return key.hashCode() ^ (value == null ? 0 : value.hashCode()) ;
+		}
+
+		@Override
+		public String toString() {
+			return key + "=" + value ;
+		}
+	}
+}
@@ -7,8 +7,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+import com.linkedlogics.bio.codec.BigDecimalCodec;
+import com.linkedlogics.bio.codec.InetAddressCodec;
+import com.linkedlogics.bio.codec.InstantCodec;
+import com.linkedlogics.bio.codec.LocalDateCodec;
+import com.linkedlogics.bio.codec.UUIDCodec;
 import com.linkedlogics.bio.dictionary.BioEnumObj;
 import com.linkedlogics.bio.dictionary.BioFunc;
 import com.linkedlogics.bio.dictionary.BioObj;
@@ -61,7 +67,14 @@ public class BioDictionary {
      */
     private BioFactory factory ;
     
-    private static Class<? extends Map> mapObjectClass = HashMap.class ;
+    /**
+     * Factory of maps in which bio objects keep their entries
+     */
+    private static BioMapFactory mapFactory = BioMapFactory.hashMap() ;
+    /**
+     * Indicates that bio objects of objs in dictionary keep their entries in {@link BioSlotMap}
+     */
+    private static boolean isSlotStorage ;
     
     private static BioInitializer<BioCompressor> compressorInitializer = new BioInitializer<BioCompressor>() {
 		@Override
@@ -77,6 +90,26 @@ public class BioDictionary {
 	};
 	
 	private static Set<String> supportedDateFormats = new HashSet<String>() ;
+	/**
+	 * Map for retrieving java object codec based on codec id
+	 */
+	private static final HashMap<Integer, BioJavaObjectCodec> javaObjectCodecIdMap = new HashMap<Integer, BioJavaObjectCodec>() ;
+	/**
+	 * Map for retrieving java object codec based on registered java class
+	 */
+	private static final HashMap<Class, BioJavaObjectCodec> javaObjectCodecClassMap = new HashMap<Class, BioJavaObjectCodec>() ;
+	/**
+	 * Resolved codecs for actual value classes including sub classes of registered ones and classes without codec
+	 */
+	private static final ConcurrentHashMap<Class, Object> javaObjectCodecCache = new ConcurrentHashMap<Class, Object>() ;
+	
+	static {
+		addJavaObjectCodec(new BigDecimalCodec());
+		addJavaObjectCodec(new UUIDCodec());
+		addJavaObjectCodec(new LocalDateCodec());
+		addJavaObjectCodec(new InstantCodec());
+		addJavaObjectCodec(new InetAddressCodec());
+	}
     
     BioDictionary() {
 
@@ -379,13 +412,38 @@ public class BioDictionary {
 	 * @return
 	 */
 	public static Map<String, Object> createMapObject() {
-    	try {
-			return (Map<String, Object>) mapObjectClass.getConstructor().newInstance() ;
-		} catch (Throwable e) {
-			throw new RuntimeException(e) ;
-		}
+		return mapFactory.create(null) ;
     }
 	
+	/**
+	 * Creates an empty map object for bio objects of given obj, if slot storage is enabled it is laid out by tags of obj
+	 * otherwise it is created by map factory
+	 * @param obj
+	 * @return
+	 */
+	public static Map<String, Object> createMapObject(BioObj obj) {
+		if (isSlotStorage && obj != null) {
+			return new BioSlotMap(obj.getSlotLayout()) ;
+		}
+		return mapFactory.create(obj) ;
+	}
+	
+	/**
+	 * Creates an empty map object for bio objects of given dictionary and code
+	 * @param dictionary
+	 * @param code
+	 * @return
+	 */
+	public static Map<String, Object> createMapObject(int dictionary, int code) {
+		if (code != 0) {
+			BioDictionary dict = dictionaryMap.get(dictionary) ;
+			if (dict != null) {
+				return createMapObject(dict.getObjByCode(code)) ;
+			}
+		}
+		return mapFactory.create(null) ;
+	}
+	
 	/**
 	 * Returns object creation factory for bio objects
 	 * @return
@@ -461,6 +519,15 @@ public class BioDictionary {
     	return d ;
     }
     
+    /**
+     * Returns dictionary by id or null if it is not found
+     * @param dictionary
+     * @return
+     */
+    public static BioDictionary findDictionary(int dictionary) {
+    	return dictionaryMap.get(dictionary) ;
+    }
+    
     /**
      * Returns dictionary by id
      * @param dictionary
@@ -493,7 +560,78 @@ public class BioDictionary {
      * @param mapObjectClass
      */
 	static void setMapObjectClass(Class<? extends Map> mapObjectClass) {
-		BioDictionary.mapObjectClass = mapObjectClass;
+		BioDictionary.mapFactory = BioMapFactory.of(mapObjectClass);
+	}
+	
+	/**
+	 * Sets map factory
+	 * @param mapFactory
+	 */
+	static void setMapFactory(BioMapFactory mapFactory) {
+		BioDictionary.mapFactory = mapFactory;
+	}
+	
+	/**
+	 * Checks whether bio objects keep their entries in slot storage
+	 * @return
+	 */
+	public static boolean isSlotStorage() {
+		return isSlotStorage;
+	}
+	
+	/**
+	 * Sets slot storage for bio objects of objs in dictionary
+	 * @param isSlotStorage
+	 */
+	static void setSlotStorage(boolean isSlotStorage) {
+		BioDictionary.isSlotStorage = isSlotStorage;
+	}
+	
+	/**
+	 * Adds java object codec, codec with the same id or java class is replaced
+	 * @param codec
+	 */
+	static synchronized void addJavaObjectCodec(BioJavaObjectCodec codec) {
+		if (codec.getId() < 1 || codec.getId() > 127) {
+			throw new DictionaryException("java object codec id " + codec.getId() + " must be between 1 and 127") ;
+		}
+		BioJavaObjectCodec existing = javaObjectCodecIdMap.get(codec.getId()) ;
+		if (existing != null) {
+			javaObjectCodecClassMap.remove(existing.getJavaClass()) ;
+		}
+		javaObjectCodecIdMap.put(codec.getId(), codec) ;
+		javaObjectCodecClassMap.put(codec.getJavaClass(), codec) ;
+		javaObjectCodecCache.clear();
+	}
+	
+	/**
+	 * Returns java object codec by codec id
+	 * @param id
+	 * @return
+	 */
+	public static BioJavaObjectCodec getJavaObjectCodec(int id) {
+		return javaObjectCodecIdMap.get(id) ;
+	}
+	
+	/**
+	 * Returns java object codec for java class or for its closest super class, null if there is no codec and java serialization must be used
+	 * @param javaClass
+	 * @return
+	 */
+	public static BioJavaObjectCodec getJavaObjectCodec(Class javaClass) {
+		Object codec = javaObjectCodecCache.get(javaClass) ;
+		if (codec == null) {
+			codec = javaClass ;
+			for (Class c = javaClass; c != null; c = c.getSuperclass()) {
+				if (javaObjectCodecClassMap.containsKey(c)) {
+					codec = javaObjectCodecClassMap.get(c) ;
+					break ;
+				}
+			}
+			// class itself is cached when there is no codec
+			javaObjectCodecCache.put(javaClass, codec) ;
+		}
+		return codec instanceof BioJavaObjectCodec ? (BioJavaObjectCodec) codec : null ;
 	}
 	
 	/**
@@ -19,6 +19,7 @@ import com.linkedlogics.bio.dictionary.builder.AnnotationReader;
 import com.linkedlogics.bio.dictionary.builder.DictionaryReader;
 import com.linkedlogics.bio.dictionary.builder.XmlReader;
 import com.linkedlogics.bio.exception.DictionaryException;
+import com.linkedlogics.bio.parser.BioObjCodec;
 
 /**
  * This is dictionary builder must be called at the beginning of application in order to setup all dictionary information
@@ -120,6 +121,16 @@ public class BioDictionaryBuilder {
 		return this ;
 	}
 	
+	/**
+	 * Adding java object codec which is used instead of java serialization for JavaObject tags of its java class
+	 * @param codec
+	 * @return
+	 */
+	public BioDictionaryBuilder addJavaObjectCodec(BioJavaObjectCodec codec) {
+		BioDictionary.addJavaObjectCodec(codec);
+		return this ;
+	}
+	
 	/**
 	 * Sets map object class
 	 * @param mapObjectClass
@@ -130,6 +141,28 @@ public class BioDictionaryBuilder {
 		return this ;
 	}
 	
+	/**
+	 * Sets map factory which creates maps of bio objects, default is {@link BioMapFactory#hashMap()}. Other factories can size maps
+	 * by tags of obj ({@link BioMapFactory#sizedHashMap()}) or select a specialized map implementation such as {@link BioMapFactory#arrayMap()}
+	 * @param mapFactory
+	 * @return
+	 */
+	public BioDictionaryBuilder setMapFactory(BioMapFactory mapFactory) {
+		BioDictionary.setMapFactory(mapFactory);
+		return this ;
+	}
+	
+	/**
+	 * Enables slot storage where bio objects of objs in dictionary keep tag values in arrays indexed by tag slots
+	 * and numeric tags unboxed, instead of map object class
+	 * @param isSlotStorage
+	 * @return
+	 */
+	public BioDictionaryBuilder setSlotStorage(boolean isSlotStorage) {
+		BioDictionary.setSlotStorage(isSlotStorage);
+		return this ;
+	}
+	
 	/**
 	 * This format is used while exporting time values
 	 * @param format
@@ -216,6 +249,20 @@ public class BioDictionaryBuilder {
 		for (Entry<Integer, BioDictionary> d : BioDictionary.getDictionaryMap().entrySet()) {
 			validate(d.getValue());
 		}
+		
+		for (Entry<Integer, BioDictionary> d : BioDictionary.getDictionaryMap().entrySet()) {
+			compile(d.getValue());
+		}
+	}
+	
+	/**
+	 * Compiles codecs of all bio objs in dictionary, must be called after validation when all tag references are resolved
+	 * @param dictionary
+	 */
+	private void compile(BioDictionary dictionary) {
+		for (BioObj obj : dictionary.getCodeMap().values()) {
+			obj.setCodec(BioObjCodec.compile(obj));
+		}
 	}
 	
 	/**
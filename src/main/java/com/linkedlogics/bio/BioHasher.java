@@ -0,0 +1,300 @@
+package com.linkedlogics.bio;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Streaming 64 bit hasher built on xxHash64 rounds. Values are added one by one and {@link #getHash()} returns hash of all added values.
+ * {@link #hash(BioObject)} computes content hash of bio object directly from its values (recursing into nested bio objects, arrays and lists)
+ * without encoding it, entries are combined independently of their order so equal bio objects always have the same hash.
+ * {@link #hash(byte[], int, int)} is xxHash64 of encoded bytes
+ * @author rdavudov
+ *
+ */
+public class BioHasher {
+	private static final long PRIME1 = 0x9E3779B185EBCA87L ;
+	private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL ;
+	private static final long PRIME3 = 0x165667B19E3779F9L ;
+	private static final long PRIME4 = 0x85EBCA77C2B2AE63L ;
+	private static final long PRIME5 = 0x27D4EB2F165667C5L ;
+
+	private long hash ;
+	private long length ;
+
+	public BioHasher() {
+		this(0) ;
+	}
+
+	public BioHasher(long seed) {
+		this.hash = seed + PRIME5 ;
+	}
+
+	/**
+	 * Returns content hash of bio object
+	 * @param bio
+	 * @return
+	 */
+	public static long hash(BioObject bio) {
+		return new BioHasher().putBio(bio).getHash() ;
+	}
+
+	/**
+	 * Returns xxHash64 of bytes with seed 0
+	 * @param bytes
+	 * @param offset
+	 * @param length
+	 * @return
+	 */
+	public static long hash(byte[] bytes, int offset, int length) {
+		return hash(bytes, offset, length, 0) ;
+	}
+
+	/**
+	 * Returns xxHash64 of bytes
+	 * @param bytes
+	 * @param offset
+	 * @param length
+	 * @param seed
+	 * @return
+	 */
+	public static long hash(byte[] bytes, int offset, int length, long seed) {
+		final int end = offset + length ;
+		int p = offset ;
+		long h ;
+		if (length >= 32) {
+			long v1 = seed + PRIME1 + PRIME2 ;
+			long v2 = seed + PRIME2 ;
+			long v3 = seed ;
+			long v4 = seed - PRIME1 ;
+			final int limit = end - 32 ;
+			do {
+				v1 = round(v1, getLong(bytes, p)) ;
+				v2 = round(v2, getLong(bytes, p + 8)) ;
+				v3 = round(v3, getLong(bytes, p + 16)) ;
+				v4 = round(v4, getLong(bytes, p + 24)) ;
+				p += 32 ;
+			} while (p <= limit) ;
+			h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18) ;
+			h = mergeRound(h, v1) ;
+			h = mergeRound(h, v2) ;
+			h = mergeRound(h, v3) ;
+			h = mergeRound(h, v4) ;
+		} else {
+			h = seed + PRIME5 ;
+		}
+		h += length ;
+		while (p + 8 <= end) {
+			h ^= round(0, getLong(bytes, p)) ;
+			h = Long.rotateLeft(h, 27) * PRIME1 + PRIME4 ;
+			p += 8 ;
+		}
+		if (p + 4 <= end) {
+			h ^= (getInt(bytes, p) & 0xFFFFFFFFL) * PRIME1 ;
+			h = Long.rotateLeft(h, 23) * PRIME2 + PRIME3 ;
+			p += 4 ;
+		}
+		while (p < end) {
+			h ^= (bytes[p] & 0xFF) * PRIME5 ;
+			h = Long.rotateLeft(h, 11) * PRIME1 ;
+			p++ ;
+		}
+		return avalanche(h) ;
+	}
+
+	public BioHasher putLong(long value) {
+		hash ^= round(0, value) ;
+		hash = Long.rotateLeft(hash, 27) * PRIME1 + PRIME4 ;
+		length += 8 ;
+		return this ;
+	}
+
+	public BioHasher putInt(int value) {
+		hash ^= (value & 0xFFFFFFFFL) * PRIME1 ;
+		hash = Long.rotateLeft(hash, 23) * PRIME2 + PRIME3 ;
+		length += 4 ;
+		return this ;
+	}
+
+	public BioHasher putDouble(double value) {
+		return putLong(Double.doubleToLongBits(value)) ;
+	}
+
+	public BioHasher putBoolean(boolean value) {
+		return putInt(value ? 1 : 0) ;
+	}
+
+	/**
+	 * Adds string length and characters, four characters per round
+	 * @param value
+	 * @return
+	 */
+	public BioHasher putString(String value) {
+		final int count = value.length() ;
+		putInt(count) ;
+		int i = 0 ;
+		for (; i + 4 <= count; i += 4) {
+			putLong((long) value.charAt(i) | (long) value.charAt(i + 1) << 16 | (long) value.charAt(i + 2) << 32 | (long) value.charAt(i + 3) << 48) ;
+		}
+		if (i < count) {
+			long last = 0 ;
+			for (int shift = 0; i < count; i++, shift += 16) {
+				last |= (long) value.charAt(i) << shift ;
+			}
+			putLong(last) ;
+		}
+		return this ;
+	}
+
+	public BioHasher putBytes(byte[] bytes, int offset, int length) {
+		putInt(length) ;
+		return putLong(hash(bytes, offset, length)) ;
+	}
+
+	/**
+	 * Adds bio dictionary, code and entries of bio object. Every entry is hashed separately and entry hashes are summed,
+	 * so that result doesn't depend on iteration order
+	 * @param bio
+	 * @return
+	 */
+	public BioHasher putBio(BioObject bio) {
+		putInt(bio.getBioDictionary()) ;
+		putInt(bio.getBioCode()) ;
+		putInt(bio.size()) ;
+		final long savedHash = hash ;
+		final long savedLength = length ;
+		long entries = 0 ;
+		for (Entry<String, Object> e : bio.entries()) {
+			hash = e.getKey().hashCode() + PRIME5 ;
+			length = 0 ;
+			putValue(e.getValue()) ;
+			entries += getHash() ;
+		}
+		hash = savedHash ;
+		length = savedLength ;
+		return putLong(entries) ;
+	}
+
+	/**
+	 * Adds value of any type supported by bio objects, for other objects their hash code is used
+	 * @param value
+	 * @return
+	 */
+	public BioHasher putValue(Object value) {
+		if (value == null) {
+			return putInt(0) ;
+		} else if (value instanceof BioObject) {
+			return putBio((BioObject) value) ;
+		} else if (value instanceof String) {
+			return putString((String) value) ;
+		} else if (value instanceof BioEnum) {
+			BioEnum bioEnum = (BioEnum) value ;
+			putInt(bioEnum.getBioDictionary()) ;
+			putInt(bioEnum.getBioCode()) ;
+			return putInt(bioEnum.getOrdinal()) ;
+		} else if (value instanceof Double || value instanceof Float) {
+			return putDouble(((Number) value).doubleValue()) ;
+		} else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			return putLong(((Number) value).longValue()) ;
+		} else if (value instanceof Boolean) {
+			return putBoolean((Boolean) value) ;
+		} else if (value instanceof Object[]) {
+			Object[] array = (Object[]) value ;
+			putInt(array.length) ;
+			for (int i = 0; i < array.length; i++) {
+				putValue(array[i]) ;
+			}
+			return this ;
+		} else if (value instanceof long[]) {
+			long[] array = (long[]) value ;
+			putInt(array.length) ;
+			for (int i = 0; i < array.length; i++) {
+				putLong(array[i]) ;
+			}
+			return this ;
+		} else if (value instanceof int[]) {
+			int[] array = (int[]) value ;
+			putInt(array.length) ;
+			for (int i = 0; i < array.length; i++) {
+				putLong(array[i]) ;
+			}
+			return this ;
+		} else if (value instanceof double[]) {
+			double[] array = (double[]) value ;
+			putInt(array.length) ;
+			for (int i = 0; i < array.length; i++) {
+				putDouble(array[i]) ;
+			}
+			return this ;
+		} else if (value instanceof List) {
+			List<?> list = (List<?>) value ;
+			putInt(list.size()) ;
+			for (int i = 0; i < list.size(); i++) {
+				putValue(list.get(i)) ;
+			}
+			return this ;
+		} else if (value instanceof Map) {
+			return putMap((Map<?, ?>) value) ;
+		}
+		return putInt(value.hashCode()) ;
+	}
+
+	/**
+	 * Adds map entries independently of their order
+	 * @param map
+	 * @return
+	 */
+	private BioHasher putMap(Map<?, ?> map) {
+		putInt(map.size()) ;
+		final long savedHash = hash ;
+		final long savedLength = length ;
+		long entries = 0 ;
+		for (Entry<?, ?> e : map.entrySet()) {
+			hash = PRIME5 ;
+			length = 0 ;
+			putValue(e.getKey()) ;
+			putValue(e.getValue()) ;
+			entries += getHash() ;
+		}
+		hash = savedHash ;
+		length = savedLength ;
+		return putLong(entries) ;
+	}
+
+	/**
+	 * Returns hash of all added values, hasher can be used further
+	 * @return
+	 */
+	public long getHash() {
+		return avalanche(hash + length) ;
+	}
+
+	private static long round(long acc, long input) {
+		acc += input * PRIME2 ;
+		acc = Long.rotateLeft(acc, 31) ;
+		return acc * PRIME1 ;
+	}
+
+	private static long mergeRound(long acc, long value) {
+		acc ^= round(0, value) ;
+		return acc * PRIME1 + PRIME4 ;
+	}
+
+	private static long avalanche(long h) {
+		h ^= h >>> 33 ;
+		h *= PRIME2 ;
+		h ^= h >>> 29 ;
+		h *= PRIME3 ;
+		h ^= h >>> 32 ;
+		return h ;
+	}
+
+	private static long getLong(byte[] bytes, int p) {
+		return (bytes[p] & 0xFFL) | (bytes[p + 1] & 0xFFL) << 8 | (bytes[p + 2] & 0xFFL) << 16 | (bytes[p + 3] & 0xFFL) << 24
+				| (bytes[p + 4] & 0xFFL) << 32 | (bytes[p + 5] & 0xFFL) << 40 | (bytes[p + 6] & 0xFFL) << 48 | (bytes[p + 7] & 0xFFL) << 56 ;
+	}
+
+	private static int getInt(byte[] bytes, int p) {
+		return (bytes[p] & 0xFF) | (bytes[p + 1] & 0xFF) << 8 | (bytes[p + 2] & 0xFF) << 16 | (bytes[p + 3] & 0xFF) << 24 ;
+	}
+}
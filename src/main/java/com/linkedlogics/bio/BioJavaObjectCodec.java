@@ -0,0 +1,47 @@
+package com.linkedlogics.bio;
+
+import com.linkedlogics.bio.stream.BiFastStream;
+import com.linkedlogics.bio.stream.BoFastStream;
+
+/**
+ * Interface for encoding java objects (JavaObject tags) without java serialization. Codecs are registered per java class
+ * in {@link BioDictionary} and encoded values are prefixed with codec id, so that value can be decoded without knowing its tag
+ * @author rdavudov
+ *
+ * @param <T>
+ */
+public interface BioJavaObjectCodec<T> {
+	/**
+	 * Returns unique codec id written before encoded value, must be between 1 and 127
+	 * @return
+	 */
+	public int getId() ;
+	
+	/**
+	 * Returns java class handled by codec, its sub classes are handled as well
+	 * @return
+	 */
+	public Class<T> getJavaClass() ;
+	
+	/**
+	 * Returns number of bytes value will be encoded into
+	 * @param value
+	 * @return
+	 */
+	public int getLength(T value) ;
+	
+	/**
+	 * Writes value into stream, exactly {@link #getLength(Object)} bytes must be written
+	 * @param stream
+	 * @param value
+	 */
+	public void write(BoFastStream stream, T value) ;
+	
+	/**
+	 * Reads value from stream
+	 * @param stream
+	 * @param length number of bytes value is encoded into
+	 * @return
+	 */
+	public T read(BiFastStream stream, int length) ;
+}
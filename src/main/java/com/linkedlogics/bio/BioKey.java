@@ -0,0 +1,110 @@
+package com.linkedlogics.bio;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.linkedlogics.bio.dictionary.BioObj;
+import com.linkedlogics.bio.dictionary.BioSlotLayout;
+import com.linkedlogics.bio.dictionary.BioSlotLayout.Slot;
+import com.linkedlogics.bio.dictionary.BioTag;
+import com.linkedlogics.bio.dictionary.BioType;
+import com.linkedlogics.bio.exception.DictionaryException;
+
+/**
+ * Pre-resolved handle of a tag of a bio obj. Handles are obtained once (usually into static fields) and interned per obj and tag name,
+ * they keep resolved tag and its slot so that {@link BioObject#get(BioKey)} and {@link BioObject#set(BioKey, Object)} access
+ * slot storage directly without hashing key or looking up tag. For bio objects with map storage name of tag is used as key
+ * @author rdavudov
+ *
+ * @param <T> type of tag values
+ */
+public class BioKey<T> {
+	private static final ConcurrentHashMap<BioObj, ConcurrentHashMap<String, BioKey<?>>> keys = new ConcurrentHashMap<BioObj, ConcurrentHashMap<String, BioKey<?>>>() ;
+
+	private final BioObj obj ;
+	private final BioTag tag ;
+	private final String name ;
+	/**
+	 * Slot of tag in last used layout, it is validated against layout of every bio object
+	 */
+	private Slot slot ;
+
+	private BioKey(BioObj obj, BioTag tag) {
+		this.obj = obj ;
+		this.tag = tag ;
+		this.name = tag.getName() ;
+	}
+
+	/**
+	 * Returns handle of tag of bio class
+	 * @param bioClass
+	 * @param name
+	 * @return
+	 */
+	public static <T> BioKey<T> of(Class<? extends BioObject> bioClass, String name) {
+		BioObj obj = BioDictionary.findObj(bioClass) ;
+		if (obj == null) {
+			throw new DictionaryException("bio obj of " + bioClass.getName() + " is not found") ;
+		}
+		return of(obj, name) ;
+	}
+
+	/**
+	 * Returns handle of tag of bio obj, tag can be a super tag as well
+	 * @param obj
+	 * @param name
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> BioKey<T> of(BioObj obj, String name) {
+		return (BioKey<T>) keys.computeIfAbsent(obj, o -> new ConcurrentHashMap<String, BioKey<?>>()).computeIfAbsent(name, n -> {
+			BioTag tag = obj.getTag(n) ;
+			if (tag == null) {
+				throw new DictionaryException("tag " + n + " is not found in " + obj.getName()) ;
+			}
+			return new BioKey<Object>(obj, tag) ;
+		}) ;
+	}
+
+	public BioObj getObj() {
+		return obj ;
+	}
+
+	public BioTag getTag() {
+		return tag ;
+	}
+
+	public String getName() {
+		return name ;
+	}
+
+	public int getCode() {
+		return tag.getCode() ;
+	}
+
+	public BioType getType() {
+		return tag.getType() ;
+	}
+
+	/**
+	 * Returns slot of tag in given layout
+	 * @param layout
+	 * @return null if tag has no slot in layout
+	 */
+	Slot getSlot(BioSlotLayout layout) {
+		Slot slot = this.slot ;
+		if (slot != null && slot.getSlot() < layout.size() && layout.getSlot(slot.getSlot()) == slot) {
+			return slot ;
+		}
+		// layout is different from last used one, slots are immutable so it is safe to replace it
+		slot = layout.getSlot(name) ;
+		if (slot != null) {
+			this.slot = slot ;
+		}
+		return slot ;
+	}
+
+	@Override
+	public String toString() {
+		return obj.getName() + "." + name ;
+	}
+}
@@ -0,0 +1,206 @@
+package com.linkedlogics.bio;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * List of bio objects kept sorted by value of their {@link #sortKey} tag, so that elements can be found by binary search.
+ * Decoded lists are already in sorted order, order is only verified (or restored) when list is first searched or appended
+ * @author rdavudov
+ *
+ */
+public class BioList extends ArrayList<BioObject> {
+	private static final long serialVersionUID = 1L;
+	/**
+	 * Tag of bio objects which is used for sorting, if it is null list is not sorted
+	 */
+	private final String sortKey ;
+	/**
+	 * Indicates whether elements are known to be sorted
+	 */
+	private boolean isSorted = true ;
+	
+	/**
+	 * Creates an empty list
+	 * @param sortKey
+	 */
+	public BioList(String sortKey) {
+		this.sortKey = sortKey ;
+	}
+	
+	/**
+	 * Creates a list with given bio objects which are sorted on first search or append
+	 * @param sortKey
+	 * @param values
+	 */
+	public BioList(String sortKey, Collection<BioObject> values) {
+		super(values) ;
+		this.sortKey = sortKey ;
+		this.isSorted = sortKey == null ;
+	}
+	
+	public String getSortKey() {
+		return sortKey;
+	}
+	
+	/**
+	 * Inserts bio object after all elements with less or equal sort key value
+	 */
+	@Override
+	public boolean add(BioObject value) {
+		if (sortKey == null) {
+			return super.add(value) ;
+		}
+		ensureSorted() ;
+		super.add(upperBound(value.get(sortKey)), value) ;
+		return true ;
+	}
+	
+	@Override
+	public boolean addAll(Collection<? extends BioObject> values) {
+		for (BioObject value : values) {
+			add(value) ;
+		}
+		return values.size() > 0 ;
+	}
+	
+	/**
+	 * Inserts bio object at given position, list is sorted again on next search or append
+	 */
+	@Override
+	public void add(int index, BioObject value) {
+		super.add(index, value);
+		isSorted = sortKey == null ;
+	}
+	
+	/**
+	 * Inserts bio objects at given position, list is sorted again on next search or append
+	 */
+	@Override
+	public boolean addAll(int index, Collection<? extends BioObject> values) {
+		isSorted = sortKey == null ;
+		return super.addAll(index, values);
+	}
+	
+	/**
+	 * Replaces bio object at given position, list is sorted again on next search or append
+	 */
+	@Override
+	public BioObject set(int index, BioObject value) {
+		isSorted = sortKey == null ;
+		return super.set(index, value);
+	}
+	
+	/**
+	 * Replaces all bio objects, list is sorted again on next search or append
+	 */
+	@Override
+	public void replaceAll(UnaryOperator<BioObject> operator) {
+		isSorted = sortKey == null ;
+		super.replaceAll(operator);
+	}
+	
+	/**
+	 * Returns view of part of list, since view can replace elements without calling {@link #set(int, BioObject)} 
+	 * list is sorted again on next search or append, which also invalidates view like any other sort
+	 */
+	@Override
+	public List<BioObject> subList(int fromIndex, int toIndex) {
+		isSorted = sortKey == null ;
+		return super.subList(fromIndex, toIndex);
+	}
+	
+	/**
+	 * Finds first bio object having given sort key value
+	 * @param value
+	 * @return null if it is not found
+	 */
+	public BioObject find(Object value) {
+		int index = indexOfKey(value) ;
+		return index >= 0 ? get(index) : null ;
+	}
+	
+	/**
+	 * Finds position of first bio object having given sort key value
+	 * @param value
+	 * @return -1 if it is not found or list has no sort key
+	 */
+	public int indexOfKey(Object value) {
+		if (sortKey == null) {
+			return -1 ;
+		}
+		ensureSorted() ;
+		int index = lowerBound(value) ;
+		return index < size() && compare(get(index).get(sortKey), value) == 0 ? index : -1 ;
+	}
+	
+	/**
+	 * Sorts with given comparator, list is sorted by sort key again on next search or append
+	 */
+	@Override
+	public void sort(Comparator<? super BioObject> comparator) {
+		super.sort(comparator);
+		isSorted = sortKey == null ;
+	}
+	
+	/**
+	 * Sorts elements if they are not known to be sorted, sorting already sorted elements takes linear time
+	 */
+	private void ensureSorted() {
+		if (!isSorted) {
+			super.sort(new Comparator<BioObject>() {
+				@Override
+				public int compare(BioObject o1, BioObject o2) {
+					return BioList.compare(o1.get(sortKey), o2.get(sortKey)) ;
+				}
+			});
+			isSorted = true ;
+		}
+	}
+	
+	private int lowerBound(Object value) {
+		int low = 0 ;
+		int high = size() ;
+		while (low < high) {
+			int middle = (low + high) >>> 1 ;
+			if (compare(get(middle).get(sortKey), value) < 0) {
+				low = middle + 1 ;
+			} else {
+				high = middle ;
+			}
+		}
+		return low ;
+	}
+	
+	private int upperBound(Object value) {
+		int low = 0 ;
+		int high = size() ;
+		while (low < high) {
+			int middle = (low + high) >>> 1 ;
+			if (compare(get(middle).get(sortKey), value) <= 0) {
+				low = middle + 1 ;
+			} else {
+				high = middle ;
+			}
+		}
+		return low ;
+	}
+	
+	/**
+	 * Compares sort key values, missing values are placed at the end
+	 * @param v1
+	 * @param v2
+	 * @return
+	 */
+	private static int compare(Object v1, Object v2) {
+		if (v1 == null) {
+			return v2 == null ? 0 : 1 ;
+		} else if (v2 == null) {
+			return -1 ;
+		}
+		return ((Comparable) v1).compareTo(v2) ;
+	}
+}
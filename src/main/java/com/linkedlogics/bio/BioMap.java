@@ -0,0 +1,135 @@
+package com.linkedlogics.bio;
+
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Map of bio objects keyed by value of their {@link #useKey} tag. Decoded maps keep values as they are read and index
+ * is built only when map is accessed by key, so that decoding and re-encoding of maps do not pay for hashing
+ * @author rdavudov
+ *
+ */
+public class BioMap extends AbstractMap<Object, BioObject> {
+	/**
+	 * Tag of bio objects which is used as key
+	 */
+	private final String useKey ;
+	/**
+	 * Bio objects indexed by use key value
+	 */
+	private LinkedHashMap<Object, BioObject> index ;
+	/**
+	 * Bio objects which are not indexed yet
+	 */
+	private List<BioObject> pending ;
+	
+	/**
+	 * Creates an empty map
+	 * @param useKey
+	 */
+	public BioMap(String useKey) {
+		this.useKey = useKey ;
+		this.index = new LinkedHashMap<Object, BioObject>() ;
+	}
+	
+	/**
+	 * Creates a map with given bio objects which are indexed on first access by key
+	 * @param useKey
+	 * @param values
+	 */
+	public BioMap(String useKey, List<BioObject> values) {
+		this.useKey = useKey ;
+		this.pending = values ;
+	}
+	
+	public String getUseKey() {
+		return useKey;
+	}
+	
+	/**
+	 * Adds bio object using value of its use key tag as key
+	 * @param value
+	 * @return
+	 */
+	public BioMap add(BioObject value) {
+		put(getKey(value), value) ;
+		return this ;
+	}
+	
+	/**
+	 * Returns value of use key tag of bio object
+	 * @param value
+	 * @return
+	 */
+	public Object getKey(BioObject value) {
+		Object key = value.get(useKey) ;
+		if (key == null) {
+			throw new RuntimeException("use key " + useKey + " is missing in " + value.getBioName()) ;
+		}
+		return key ;
+	}
+	
+	@Override
+	public BioObject get(Object key) {
+		return index().get(key) ;
+	}
+	
+	@Override
+	public boolean containsKey(Object key) {
+		return index().containsKey(key) ;
+	}
+	
+	@Override
+	public BioObject put(Object key, BioObject value) {
+		return index().put(key, value) ;
+	}
+	
+	@Override
+	public BioObject remove(Object key) {
+		return index().remove(key) ;
+	}
+	
+	@Override
+	public void clear() {
+		pending = null ;
+		index = new LinkedHashMap<Object, BioObject>() ;
+	}
+	
+	@Override
+	public int size() {
+		return pending != null ? pending.size() : index.size() ;
+	}
+	
+	/**
+	 * Returns values in insertion order, values of a map which is not indexed yet are returned without building the index
+	 */
+	@Override
+	public Collection<BioObject> values() {
+		return pending != null ? Collections.unmodifiableList(pending) : index.values() ;
+	}
+	
+	@Override
+	public Set<Entry<Object, BioObject>> entrySet() {
+		return index().entrySet() ;
+	}
+	
+	/**
+	 * Builds index from pending values if it is not built yet
+	 * @return
+	 */
+	private LinkedHashMap<Object, BioObject> index() {
+		if (pending != null) {
+			LinkedHashMap<Object, BioObject> index = new LinkedHashMap<Object, BioObject>() ;
+			for (int i = 0; i < pending.size(); i++) {
+				index.put(getKey(pending.get(i)), pending.get(i)) ;
+			}
+			this.index = index ;
+			this.pending = null ;
+		}
+		return index ;
+	}
+}
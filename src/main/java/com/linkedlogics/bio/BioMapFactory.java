@@ -0,0 +1,116 @@
+package com.linkedlogics.bio;
+
+import java.lang.reflect.Constructor;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.linkedlogics.bio.dictionary.BioObj;
+
+/**
+ * Factory of maps in which bio objects keep their entries. Bio obj of created bio object is given (or null for generic bio objects)
+ * so that maps can be sized by number of tags or a specialized map implementation can be selected
+ * @author rdavudov
+ *
+ */
+@FunctionalInterface
+public interface BioMapFactory {
+	/**
+	 * Bio objs with fewer tags than this are kept in {@link BioArrayMap} by {@link #arrayMap()}
+	 */
+	int SMALL_OBJ_TAGS = 8 ;
+
+	/**
+	 * Creates an empty map for bio object of given obj
+	 * @param obj bio obj or null if it is not known
+	 * @return
+	 */
+	Map<String, Object> create(BioObj obj) ;
+
+	/**
+	 * Returns factory creating hash maps with default capacity, it is the default factory
+	 * @return
+	 */
+	static BioMapFactory hashMap() {
+		return obj -> new HashMap<String, Object>() ;
+	}
+
+	/**
+	 * Returns factory creating hash maps sized by number of tags of obj, so that bio objects having most of their tags
+	 * are filled without resizing. Maps of objs with many tags are larger than default ones even if only few tags are set
+	 * and their iteration order (and therefore encoded bytes) can differ from default maps
+	 * @return
+	 */
+	static BioMapFactory sizedHashMap() {
+		return obj -> obj != null ? new HashMap<String, Object>(getCapacity(obj)) : new HashMap<String, Object>() ;
+	}
+
+	/**
+	 * Returns factory creating linked hash maps with default capacity
+	 * @return
+	 */
+	static BioMapFactory linkedHashMap() {
+		return obj -> new LinkedHashMap<String, Object>() ;
+	}
+
+	/**
+	 * Returns factory creating array maps for objs having fewer than {@link #SMALL_OBJ_TAGS} tags and default hash maps for others
+	 * @return
+	 */
+	static BioMapFactory arrayMap() {
+		return obj -> {
+			if (obj != null) {
+				int tags = obj.getCodeMap().size() ;
+				if (tags < SMALL_OBJ_TAGS) {
+					return new BioArrayMap(tags) ;
+				}
+			}
+			return new HashMap<String, Object>() ;
+		} ;
+	}
+
+	/**
+	 * Returns factory using given supplier for all bio objects
+	 * @param supplier
+	 * @return
+	 */
+	static BioMapFactory of(Supplier<Map<String, Object>> supplier) {
+		return obj -> supplier.get() ;
+	}
+
+	/**
+	 * Returns factory creating instances of given map class, well known classes are created directly and others
+	 * using their default constructor which is looked up only once
+	 * @param mapClass
+	 * @return
+	 */
+	static BioMapFactory of(Class<? extends Map> mapClass) {
+		if (mapClass == HashMap.class) {
+			return hashMap() ;
+		} else if (mapClass == LinkedHashMap.class) {
+			return linkedHashMap() ;
+		}
+		try {
+			final Constructor<? extends Map> constructor = mapClass.getConstructor() ;
+			return obj -> {
+				try {
+					return (Map<String, Object>) constructor.newInstance() ;
+				} catch (Throwable e) {
+					throw new RuntimeException(e) ;
+				}
+			} ;
+		} catch (NoSuchMethodException e) {
+			throw new RuntimeException("map class " + mapClass.getName() + " has no default constructor", e) ;
+		}
+	}
+
+	/**
+	 * Returns initial capacity of hash map which holds all tags of obj without resizing
+	 * @param obj
+	 * @return
+	 */
+	static int getCapacity(BioObj obj) {
+		return (int) (obj.getCodeMap().size() / 0.75f) + 1 ;
+	}
+}
@@ -2,17 +2,18 @@ package com.linkedlogics.bio;
 
 import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.json.JSONObject;
 
 import com.linkedlogics.bio.dictionary.BioObj;
+import com.linkedlogics.bio.dictionary.BioSlotLayout;
+import com.linkedlogics.bio.dictionary.BioSlotLayout.Slot;
 import com.linkedlogics.bio.dictionary.BioTag;
 import com.linkedlogics.bio.dictionary.BioType;
 import com.linkedlogics.bio.exception.DictionaryException;
@@ -54,13 +55,14 @@ public class BioObject implements Cloneable {
 	/**
 	 * Actual map which contains all entries
 	 */
-	private Map<String, Object> map = BioDictionary.createMapObject() ;
+	private Map<String, Object> map ;
 	
 	public BioObject(int code, String name, int version, int dictionary, BioObject object) {
 		this.code = code;
 		this.name = name ;
 		this.version = version;
 		this.dictionary = dictionary ;
+		this.map = BioDictionary.createMapObject(dictionary, code) ;
 		
 		if (object != null) {
 			putAll(object);
@@ -100,6 +102,7 @@ public class BioObject implements Cloneable {
 		this.name = obj.getName() ;
 		this.version = obj.getVersion();
 		this.dictionary = obj.getDictionary() ;
+		this.map = BioDictionary.createMapObject(obj) ;
 		
 		if (object != null) {
 			putAll(object);
@@ -180,11 +183,20 @@ public class BioObject implements Cloneable {
 			throw new RuntimeException("value can't be null");
 		}
 		
-		if (value != null && value.getClass().isArray() && !(value instanceof Object[])) {
-			throw new RuntimeException(key + "'s value can't be array of primitive type");
+		if (value != null && value.getClass().isArray() && !(value instanceof Object[]) && !isPrimitiveArray(value)) {
+			throw new RuntimeException(key + "'s value can't be array of primitive type other than long[], int[] and double[]");
 		}
 	}
 	
+	/**
+	 * Checks whether value is one of supported primitive arrays long[], int[] or double[]
+	 * @param value
+	 * @return
+	 */
+	public static boolean isPrimitiveArray(Object value) {
+		return value instanceof long[] || value instanceof int[] || value instanceof double[] ;
+	}
+	
 	/**
 	 * Puts key and object
 	 */
@@ -350,6 +362,14 @@ public class BioObject implements Cloneable {
 		return (BioObject) getOrDefault(key, defaultValue);
 	}
 	
+	public BioMap getBioMap(String key) {
+		return (BioMap) get(key);
+	}
+	
+	public BioList getBioList(String key) {
+		return (BioList) get(key);
+	}
+	
 	public Byte getByte(String key) {
 		Object object = get(key);
 		if (object == null) {
@@ -527,6 +547,252 @@ public class BioObject implements Cloneable {
 	public String getString(String key) {
 		return (String) get(key);
 	}
+	
+	/* Methods accessing values by pre-resolved tag handles */
+	
+	/**
+	 * Returns value of tag, with slot storage value is read from its slot without hashing
+	 * @param key
+	 * @return
+	 */
+	public <T> T get(BioKey<T> key) {
+		if (map instanceof BioSlotMap) {
+			BioSlotMap slots = (BioSlotMap) map ;
+			Slot slot = key.getSlot(slots.getLayout()) ;
+			if (slot != null) {
+				return (T) slots.get(slot) ;
+			}
+		}
+		return (T) get(key.getName()) ;
+	}
+	
+	public <T> T getOrDefault(BioKey<T> key, T defaultValue) {
+		T value = get(key) ;
+		return value != null ? value : defaultValue ;
+	}
+	
+	/**
+	 * Sets value of tag, with slot storage value is written to its slot without hashing
+	 * @param key
+	 * @param value
+	 * @return
+	 */
+	public <T> BioObject set(BioKey<T> key, T value) {
+		validateKeyAndObject(key.getName(), value) ;
+		if (map instanceof BioSlotMap) {
+			BioSlotMap slots = (BioSlotMap) map ;
+			Slot slot = key.getSlot(slots.getLayout()) ;
+			if (slot != null) {
+				slots.put(slot, value) ;
+				return this ;
+			}
+		}
+		put(key.getName(), value) ;
+		return this ;
+	}
+	
+	public boolean has(BioKey<?> key) {
+		if (map instanceof BioSlotMap) {
+			BioSlotMap slots = (BioSlotMap) map ;
+			Slot slot = key.getSlot(slots.getLayout()) ;
+			if (slot != null) {
+				return slots.containsKey(slot) ;
+			}
+		}
+		return has(key.getName()) ;
+	}
+	
+	public <T> T remove(BioKey<T> key) {
+		if (isImmutable()) {
+			throw new ImmutableException();
+		}
+		if (map instanceof BioSlotMap) {
+			BioSlotMap slots = (BioSlotMap) map ;
+			Slot slot = key.getSlot(slots.getLayout()) ;
+			if (slot != null) {
+				return (T) slots.remove(slot) ;
+			}
+		}
+		return (T) remove(key.getName()) ;
+	}
+	
+	/* Primitive getter and setter methods, with slot storage they don't box values */
+	
+	public int getIntValue(String key, int defaultValue) {
+		if (map instanceof BioSlotMap) {
+			BioSlotMap slots = (BioSlotMap) map ;
+			return getIntValue(slots, slots.getPresentSlot(key), key, defaultValue) ;
+		}
+		Integer value = getInt(key) ;
+		return value != null ? value : defaultValue ;
+	}
+	
+	public int getIntValue(BioKey<?> key, int defaultValue) {
+		if (map instanceof BioSlotMap) {
+			BioSlotMap slots = (BioSlotMap) map ;
+			return getIntValue(slots, slots.getPresentSlot(key.getSlot(slots.getLayout())), key.getName(), defaultValue) ;
+		}
+		return getIntValue(key.getName(), defaultValue) ;
+	}
+	
+	private int getIntValue(BioSlotMap slots, Slot slot, String key, int defaultValue) {
+		if (slot != null && slot.getKind() == BioSlotLayout.KIND_LONG && slot.getBoxedClass() != Boolean.class) {
+			return (int) slots.getLong(slot) ;
+		} else if (slot != null && slot.getKind() == BioSlotLayout.KIND_DOUBLE) {
+			return (int) slots.getDouble(slot) ;
+		}
+		Integer value = getInt(key) ;
+		return value != null ? value : defaultValue ;
+	}
+	
+	public long getLongValue(String key, long defaultValue) {
+		if (map instanceof BioSlotMap) {
+			BioSlotMap slots = (BioSlotMap) map ;
+			return getLongValue(slots, slots.getPresentSlot(key), key, defaultValue) ;
+		}
+		Long value = getLong(key) ;
+		return value != null ? value : defaultValue ;
+	}
+	
+	public long getLongValue(BioKey<?> key, long defaultValue) {
+		if (map instanceof BioSlotMap) {
+			BioSlotMap slots = (BioSlotMap) map ;
+			return getLongValue(slots, slots.getPresentSlot(key.getSlot(slots.getLayout())), key.getName(), defaultValue) ;
+		}
+		return getLongValue(key.getName(), defaultValue) ;
+	}
+	
+	private long getLongValue(BioSlotMap slots, Slot slot, String key, long defaultValue) {
+		if (slot != null && slot.getKind() == BioSlotLayout.KIND_LONG && slot.getBoxedClass() != Boolean.class) {
+			return slots.getLong(slot) ;
+		} else if (slot != null && slot.getKind() == BioSlotLayout.KIND_DOUBLE) {
+			return (long) slots.getDouble(slot) ;
+		}
+		Long value = getLong(key) ;
+		return value != null ? value : defaultValue ;
+	}
+	
+	public double getDoubleValue(String key, double defaultValue) {
+		if (map instanceof BioSlotMap) {
+			BioSlotMap slots = (BioSlotMap) map ;
+			return getDoubleValue(slots, slots.getPresentSlot(key), key, defaultValue) ;
+		}
+		Double value = getDouble(key) ;
+		return value != null ? value : defaultValue ;
+	}
+	
+	public double getDoubleValue(BioKey<?> key, double defaultValue) {
+		if (map instanceof BioSlotMap) {
+			BioSlotMap slots = (BioSlotMap) map ;
+			return getDoubleValue(slots, slots.getPresentSlot(key.getSlot(slots.getLayout())), key.getName(), defaultValue) ;
+		}
+		return getDoubleValue(key.getName(), defaultValue) ;
+	}
+	
+	private double getDoubleValue(BioSlotMap slots, Slot slot, String key, double defaultValue) {
+		if (slot != null && slot.getKind() == BioSlotLayout.KIND_DOUBLE) {
+			return slot.getBoxedClass() == Float.class ? (float) slots.getDouble(slot) : slots.getDouble(slot) ;
+		} else if (slot != null && slot.getKind() == BioSlotLayout.KIND_LONG && slot.getBoxedClass() != Boolean.class) {
+			return slots.getLong(slot) ;
+		}
+		Double value = getDouble(key) ;
+		return value != null ? value : defaultValue ;
+	}
+	
+	public boolean getBooleanValue(String key, boolean defaultValue) {
+		if (map instanceof BioSlotMap) {
+			BioSlotMap slots = (BioSlotMap) map ;
+			Slot slot = slots.getPresentSlot(key) ;
+			if (slot != null && slot.getBoxedClass() == Boolean.class) {
+				return slots.getLong(slot) != 0 ;
+			}
+		}
+		Boolean value = getBoolean(key) ;
+		return value != null ? value : defaultValue ;
+	}
+	
+	/**
+	 * Sets int value, it is kept unboxed if key is an Integer tag in slot storage
+	 * @param key
+	 * @param value
+	 * @return
+	 */
+	public BioObject setInt(String key, int value) {
+		if (!setSlotLong(key, Integer.class, value)) {
+			put(key, value) ;
+		}
+		return this ;
+	}
+	
+	/**
+	 * Sets long value, it is kept unboxed if key is a Long or Time tag in slot storage
+	 * @param key
+	 * @param value
+	 * @return
+	 */
+	public BioObject setLong(String key, long value) {
+		if (!setSlotLong(key, Long.class, value)) {
+			put(key, value) ;
+		}
+		return this ;
+	}
+	
+	/**
+	 * Sets boolean value, it is kept unboxed if key is a Boolean tag in slot storage
+	 * @param key
+	 * @param value
+	 * @return
+	 */
+	public BioObject setBoolean(String key, boolean value) {
+		if (!setSlotLong(key, Boolean.class, value ? 1 : 0)) {
+			put(key, value) ;
+		}
+		return this ;
+	}
+	
+	/**
+	 * Sets double value, it is kept unboxed if key is a Double tag in slot storage
+	 * @param key
+	 * @param value
+	 * @return
+	 */
+	public BioObject setDouble(String key, double value) {
+		if (map instanceof BioSlotMap) {
+			if (isImmutable()) {
+				throw new ImmutableException();
+			}
+			BioSlotMap slots = (BioSlotMap) map ;
+			Slot slot = slots.getLayout().getSlot(key) ;
+			if (slot != null && slot.getBoxedClass() == Double.class) {
+				slots.setDouble(slot, value) ;
+				return this ;
+			}
+		}
+		put(key, value) ;
+		return this ;
+	}
+	
+	/**
+	 * Stores value unboxed if key has a long slot for values of given class
+	 * @param key
+	 * @param boxedClass
+	 * @param value
+	 * @return false if value must be put as an object
+	 */
+	private boolean setSlotLong(String key, Class<?> boxedClass, long value) {
+		if (map instanceof BioSlotMap) {
+			if (isImmutable()) {
+				throw new ImmutableException();
+			}
+			BioSlotMap slots = (BioSlotMap) map ;
+			Slot slot = slots.getLayout().getSlot(key) ;
+			if (slot != null && slot.getBoxedClass() == boxedClass) {
+				slots.setLong(slot, value) ;
+				return true ;
+			}
+		}
+		return false ;
+	}
 
 	public String getString(String key, String defaultValue) {
 		return (String) getOrDefault(key, defaultValue) ;
@@ -564,56 +830,69 @@ public class BioObject implements Cloneable {
 	 */
 	@Override
 	public boolean equals(Object object) {
-		if (object instanceof BioObject) {
-			BioObject bioObject = (BioObject) object ;
-			
-			if (bioObject.getBioDictionary() != this.dictionary 
-					|| bioObject.getBioCode() != this.code) {
+		if (object == this) {
+			return true ;
+		}
+		if (!(object instanceof BioObject)) {
+			return false ;
+		}
+		BioObject bioObject = (BioObject) object ;
+		if (bioObject.getBioDictionary() != this.dictionary 
+				|| bioObject.getBioCode() != this.code
+				|| bioObject.size() != size()) {
+			return false ;
+		}
+		for (Entry<String, Object> e : entries()) {
+			Object value = e.getValue() ;
+			Object other = bioObject.get(e.getKey()) ;
+			if (other == null) {
 				return false ;
-			}
-			AtomicBoolean isEquals = new AtomicBoolean(true) ;
-			
-			Iterator<Entry<String, Object>> iterator = entries().iterator() ;
-			while (iterator.hasNext()) {
-				Entry<String, Object> e = iterator.next() ;
-				if (!bioObject.has(e.getKey())) {
-					isEquals.set(false);
-					break;
-				} else if (e.getValue() instanceof Object[] && bioObject.get(e.getKey()) instanceof Object[]) {
-					Object[] thisArray = (Object[]) e.getValue() ;
-					Object[] objectArray = (Object[]) bioObject.get(e.getKey()) ;
-					if (thisArray.length != objectArray.length) {
-						isEquals.set(false);
-						break;
-					} else {
-						for (int i = 0; i < thisArray.length; i++) {
-							if (!thisArray[i].equals(objectArray[i])) {
-								isEquals.set(false);
-								break;
-							}
-						}
-					}
-				} else if (e.getValue() instanceof List && bioObject.get(e.getKey()) instanceof List) {
-					List<Object> thisList = (List<Object>) e.getValue() ;
-					List<Object> objectList = (List<Object>) bioObject.get(e.getKey()) ;
-					if (thisList.size() != objectList.size()) {
-						isEquals.set(false);
-						break;
-					} else {
-						for (int i = 0; i < thisList.size(); i++) {
-							if (!thisList.get(i).equals(objectList.get(i))) {
-								isEquals.set(false);
-								break;
-							}
-						}
-					}
-				} else if (!e.getValue().equals(bioObject.get(e.getKey()))) {
-					isEquals.set(false);
-					break;
+			} else if (value instanceof Object[] && other instanceof Object[]) {
+				if (!Arrays.equals((Object[]) value, (Object[]) other)) {
+					return false ;
+				}
+			} else if (isPrimitiveArray(value)) {
+				if (!primitiveArrayEquals(value, other)) {
+					return false ;
 				}
+			} else if (!value.equals(other)) {
+				return false ;
 			}
-			
-			return isEquals.get() ;
+		}
+		return true ;
+	}
+	
+	/**
+	 * Returns hash code consistent with {@link #equals(Object)} calculated from content hash
+	 */
+	@Override
+	public int hashCode() {
+		long hash = contentHash() ;
+		return (int) (hash ^ (hash >>> 32)) ;
+	}
+	
+	/**
+	 * Returns 64 bit hash of bio dictionary, code and all entries calculated directly from values without encoding (see {@link BioHasher}).
+	 * Equal bio objects have the same content hash independently of order of their entries
+	 * @return
+	 */
+	public long contentHash() {
+		return BioHasher.hash(this) ;
+	}
+
+	/**
+	 * Checks equality of primitive arrays of the same type
+	 * @param array
+	 * @param other
+	 * @return
+	 */
+	private static boolean primitiveArrayEquals(Object array, Object other) {
+		if (array instanceof long[] && other instanceof long[]) {
+			return Arrays.equals((long[]) array, (long[]) other) ;
+		} else if (array instanceof int[] && other instanceof int[]) {
+			return Arrays.equals((int[]) array, (int[]) other) ;
+		} else if (array instanceof double[] && other instanceof double[]) {
+			return Arrays.equals((double[]) array, (double[]) other) ;
 		}
 		return false ;
 	}
@@ -633,6 +912,20 @@ public class BioObject implements Cloneable {
 			for(Entry<String, Object> e : entries()) {
 				if (e.getValue() instanceof BioObject) {
 					clone.put(e.getKey(), ((BioObject) e.getValue()).clone());
+				} else if (e.getValue() instanceof BioMap) {
+					BioMap map = (BioMap) e.getValue() ;
+					BioMap cloneMap = new BioMap(map.getUseKey()) ;
+					for (BioObject object : map.values()) {
+						cloneMap.add(object.clone()) ;
+					}
+					clone.put(e.getKey(), cloneMap);
+				} else if (e.getValue() instanceof BioList) {
+					BioList list = (BioList) e.getValue() ;
+					ArrayList<BioObject> cloneValues = new ArrayList<BioObject>() ;
+					for (BioObject object : list) {
+						cloneValues.add(object.clone()) ;
+					}
+					clone.put(e.getKey(), new BioList(list.getSortKey(), cloneValues));
 				} else if (e.getValue() instanceof List) {
 					List list = (List) e.getValue() ;
 					List cloneList = new ArrayList() ;
@@ -651,6 +944,12 @@ public class BioObject implements Cloneable {
 						cloneArray[i] = array[i] ;
 					}
 					clone.put(e.getKey(), cloneArray);
+				} else if (e.getValue() instanceof long[]) {
+					clone.put(e.getKey(), ((long[]) e.getValue()).clone());
+				} else if (e.getValue() instanceof int[]) {
+					clone.put(e.getKey(), ((int[]) e.getValue()).clone());
+				} else if (e.getValue() instanceof double[]) {
+					clone.put(e.getKey(), ((double[]) e.getValue()).clone());
 				} else {
 					clone.put(e.getKey(), e.getValue());
 				}
@@ -775,7 +1074,8 @@ public class BioObject implements Cloneable {
 					BioTag tag = obj.getTag(k) ;
 					Object value = get(k) ;
 
-					if (value instanceof BioExpression) {
+					if (value instanceof BioExpression || isPrimitiveArray(value)) {
+						// primitive arrays are kept as they are
 						continue ;
 					} else if (tag.isArray()) {
 						if (tag.getType() != BioType.BioEnum) {
@@ -967,6 +1267,14 @@ public class BioObject implements Cloneable {
 		return map ;
 	}
 	
+	/**
+	 * Replaces underlying map, used by subclasses which keep their entries in a different storage
+	 * @param map
+	 */
+	protected void setMap(Map<String, Object> map) {
+		this.map = map ;
+	}
+	
 	public String toString() {
 		return toXml() ;
 	}
@@ -0,0 +1,415 @@
+package com.linkedlogics.bio;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.linkedlogics.bio.dictionary.BioSlotLayout;
+import com.linkedlogics.bio.dictionary.BioSlotLayout.Slot;
+
+/**
+ * Map of bio object entries laid out in arrays by {@link BioSlotLayout} of its bio obj. Values of scalar numeric and boolean tags
+ * are kept unboxed in long[] and double[] arrays, values of other tags in an Object[] array and keys which are not tags of obj
+ * (or values whose class doesn't match the tag type) in a fallback map which is created only when it is needed.
+ * Presence of tag values is kept as a bitmap of slot numbers
+ * @author rdavudov
+ *
+ */
+public class BioSlotMap extends AbstractMap<String, Object> {
+	private static final long[] EMPTY_LONGS = new long[0] ;
+	private static final double[] EMPTY_DOUBLES = new double[0] ;
+	private static final Object[] EMPTY_OBJECTS = new Object[0] ;
+
+	private final BioSlotLayout layout ;
+	private final long[] presence ;
+	private final long[] longs ;
+	private final double[] doubles ;
+	private final Object[] objects ;
+	/**
+	 * Entries which don't have slots
+	 */
+	private HashMap<String, Object> others ;
+	private int size ;
+
+	public BioSlotMap(BioSlotLayout layout) {
+		this.layout = layout ;
+		this.presence = new long[(layout.size() + 63) >>> 6] ;
+		this.longs = layout.getLongCount() > 0 ? new long[layout.getLongCount()] : EMPTY_LONGS ;
+		this.doubles = layout.getDoubleCount() > 0 ? new double[layout.getDoubleCount()] : EMPTY_DOUBLES ;
+		this.objects = layout.getObjectCount() > 0 ? new Object[layout.getObjectCount()] : EMPTY_OBJECTS ;
+	}
+
+	public BioSlotLayout getLayout() {
+		return layout ;
+	}
+
+	private boolean isPresent(int slot) {
+		return (presence[slot >>> 6] & (1L << slot)) != 0 ;
+	}
+
+	/**
+	 * Returns value of slot boxed to its tag type
+	 * @param slot
+	 * @return
+	 */
+	private Object getValue(Slot slot) {
+		switch (slot.getKind()) {
+		case BioSlotLayout.KIND_LONG:
+			long value = longs[slot.getIndex()] ;
+			Class<?> boxedClass = slot.getBoxedClass() ;
+			if (boxedClass == Long.class) {
+				return value ;
+			} else if (boxedClass == Integer.class) {
+				return (int) value ;
+			} else if (boxedClass == Boolean.class) {
+				return value != 0 ;
+			} else if (boxedClass == Short.class) {
+				return (short) value ;
+			}
+			return (byte) value ;
+		case BioSlotLayout.KIND_DOUBLE:
+			if (slot.getBoxedClass() == Float.class) {
+				return (float) doubles[slot.getIndex()] ;
+			}
+			return doubles[slot.getIndex()] ;
+		default:
+			return objects[slot.getIndex()] ;
+		}
+	}
+
+	/**
+	 * Stores value in slot if its class matches slot
+	 * @param slot
+	 * @param value
+	 * @return false if value can't be kept in slot
+	 */
+	private boolean setValue(Slot slot, Object value) {
+		switch (slot.getKind()) {
+		case BioSlotLayout.KIND_LONG:
+			if (value.getClass() != slot.getBoxedClass()) {
+				return false ;
+			}
+			longs[slot.getIndex()] = value instanceof Boolean ? (((Boolean) value) ? 1 : 0) : ((Number) value).longValue() ;
+			break ;
+		case BioSlotLayout.KIND_DOUBLE:
+			if (value.getClass() != slot.getBoxedClass()) {
+				return false ;
+			}
+			doubles[slot.getIndex()] = ((Number) value).doubleValue() ;
+			break ;
+		default:
+			objects[slot.getIndex()] = value ;
+		}
+		int s = slot.getSlot() ;
+		if (!isPresent(s)) {
+			presence[s >>> 6] |= 1L << s ;
+			size++ ;
+		}
+		return true ;
+	}
+
+	/**
+	 * Clears slot
+	 * @param slot
+	 * @return previous value or null
+	 */
+	private Object clearValue(Slot slot) {
+		int s = slot.getSlot() ;
+		if (!isPresent(s)) {
+			return null ;
+		}
+		Object old = getValue(slot) ;
+		if (slot.getKind() == BioSlotLayout.KIND_OBJECT) {
+			objects[slot.getIndex()] = null ;
+		}
+		presence[s >>> 6] &= ~(1L << s) ;
+		size-- ;
+		return old ;
+	}
+
+	/**
+	 * Returns slot of key if it has a value in slot
+	 * @param key
+	 * @return null if key has no slot or its value is not kept in slot
+	 */
+	Slot getPresentSlot(String key) {
+		Slot slot = layout.getSlot(key) ;
+		return slot != null && isPresent(slot.getSlot()) ? slot : null ;
+	}
+
+	/**
+	 * Returns given slot if it has a value
+	 * @param slot
+	 * @return null if slot is null or its value is not kept in slot
+	 */
+	Slot getPresentSlot(Slot slot) {
+		return slot != null && isPresent(slot.getSlot()) ? slot : null ;
+	}
+
+	/**
+	 * Returns unboxed value of present long slot
+	 * @param slot
+	 * @return
+	 */
+	long getLong(Slot slot) {
+		return longs[slot.getIndex()] ;
+	}
+
+	/**
+	 * Returns unboxed value of present double slot
+	 * @param slot
+	 * @return
+	 */
+	double getDouble(Slot slot) {
+		return doubles[slot.getIndex()] ;
+	}
+
+	/**
+	 * Stores unboxed value in long slot, caller must ensure that value fits type of slot
+	 * @param slot
+	 * @param value
+	 */
+	void setLong(Slot slot, long value) {
+		longs[slot.getIndex()] = value ;
+		markPresent(slot) ;
+	}
+
+	/**
+	 * Stores unboxed value in double slot, caller must ensure that value fits type of slot
+	 * @param slot
+	 * @param value
+	 */
+	void setDouble(Slot slot, double value) {
+		doubles[slot.getIndex()] = value ;
+		markPresent(slot) ;
+	}
+
+	private void markPresent(Slot slot) {
+		int s = slot.getSlot() ;
+		if (!isPresent(s)) {
+			presence[s >>> 6] |= 1L << s ;
+			size++ ;
+			// value which didn't fit slot earlier is replaced
+			if (others != null) {
+				others.remove(slot.getTag().getName()) ;
+			}
+		}
+	}
+
+	@Override
+	public Object get(Object key) {
+		Slot slot = layout.getSlot((String) key) ;
+		if (slot != null && isPresent(slot.getSlot())) {
+			return getValue(slot) ;
+		}
+		return others != null ? others.get(key) : null ;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		Slot slot = layout.getSlot((String) key) ;
+		if (slot != null && isPresent(slot.getSlot())) {
+			return true ;
+		}
+		return others != null && others.containsKey(key) ;
+	}
+
+	/**
+	 * Returns value of tag having given slot
+	 * @param slot
+	 * @return
+	 */
+	Object get(Slot slot) {
+		if (isPresent(slot.getSlot())) {
+			return getValue(slot) ;
+		}
+		return others != null ? others.get(slot.getTag().getName()) : null ;
+	}
+
+	/**
+	 * Checks whether tag having given slot has a value
+	 * @param slot
+	 * @return
+	 */
+	boolean containsKey(Slot slot) {
+		return isPresent(slot.getSlot()) || (others != null && others.containsKey(slot.getTag().getName())) ;
+	}
+
+	/**
+	 * Puts value of tag having given slot
+	 * @param slot
+	 * @param value
+	 * @return
+	 */
+	Object put(Slot slot, Object value) {
+		return put(slot, slot.getTag().getName(), value) ;
+	}
+
+	/**
+	 * Removes value of tag having given slot
+	 * @param slot
+	 * @return
+	 */
+	Object remove(Slot slot) {
+		Object old = clearValue(slot) ;
+		if (old != null) {
+			return old ;
+		}
+		return others != null ? others.remove(slot.getTag().getName()) : null ;
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		return put(layout.getSlot(key), key, value) ;
+	}
+
+	private Object put(Slot slot, String key, Object value) {
+		if (slot != null) {
+			Object old = clearValue(slot) ;
+			if (value != null && setValue(slot, value)) {
+				return old != null ? old : (others != null ? others.remove(key) : null) ;
+			}
+			// value doesn't fit slot so it is kept with other entries
+			if (old != null) {
+				if (others == null) {
+					others = new HashMap<String, Object>() ;
+				}
+				others.put(key, value) ;
+				return old ;
+			}
+		}
+		if (others == null) {
+			others = new HashMap<String, Object>() ;
+		}
+		return others.put(key, value) ;
+	}
+
+	@Override
+	public Object remove(Object key) {
+		Slot slot = layout.getSlot((String) key) ;
+		if (slot != null) {
+			return remove(slot) ;
+		}
+		return others != null ? others.remove(key) : null ;
+	}
+
+	@Override
+	public void putAll(Map<? extends String, ? extends Object> map) {
+		for (Entry<? extends String, ? extends Object> e : map.entrySet()) {
+			put(e.getKey(), e.getValue()) ;
+		}
+	}
+
+	@Override
+	public int size() {
+		return size + (others != null ? others.size() : 0) ;
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < presence.length; i++) {
+			presence[i] = 0 ;
+		}
+		for (int i = 0; i < objects.length; i++) {
+			objects[i] = null ;
+		}
+		size = 0 ;
+		others = null ;
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		return new AbstractSet<Entry<String, Object>>() {
+			@Override
+			public Iterator<Entry<String, Object>> iterator() {
+				return new EntryIterator() ;
+			}
+
+			@Override
+			public int size() {
+				return BioSlotMap.this.size() ;
+			}
+		} ;
+	}
+
+	/**
+	 * Iterates over present slots and then over other entries
+	 */
+	private class EntryIterator implements Iterator<Entry<String, Object>> {
+		private int next = nextSlot(0) ;
+		private Slot current ;
+		private Iterator<Entry<String, Object>> othersIterator ;
+		private boolean isOther ;
+
+		private int nextSlot(int from) {
+			for (int i = from; i < layout.size(); i++) {
+				if (isPresent(i)) {
+					return i ;
+				}
+			}
+			return -1 ;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (next >= 0) {
+				return true ;
+			}
+			if (othersIterator == null) {
+				if (others == null) {
+					return false ;
+				}
+				othersIterator = others.entrySet().iterator() ;
+			}
+			return othersIterator.hasNext() ;
+		}
+
+		@Override
+		public Entry<String, Object> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException() ;
+			}
+			if (next >= 0) {
+				current = layout.getSlot(next) ;
+				isOther = false ;
+				next = nextSlot(next + 1) ;
+				return new SlotEntry(current.getTag().getName(), getValue(current)) ;
+			}
+			isOther = true ;
+			return othersIterator.next() ;
+		}
+
+		@Override
+		public void remove() {
+			if (isOther) {
+				othersIterator.remove() ;
+			} else if (current != null) {
+				clearValue(current) ;
+				current = null ;
+			} else {
+				throw new IllegalStateException() ;
+			}
+		}
+	}
+
+	/**
+	 * Entry of a slot, setting its value puts it into map
+	 */
+	private class SlotEntry extends SimpleEntry<String, Object> {
+		private static final long serialVersionUID = 1L;
+
+		SlotEntry(String key, Object value) {
+			super(key, value) ;
+		}
+
+		@Override
+		public Object setValue(Object value) {
+			put(getKey(), value) ;
+			return super.setValue(value) ;
+		}
+	}
+}
@@ -21,4 +21,9 @@ public @interface BioTagCompatibility {
 	boolean isList() default false ;
 	Class javaClass() default void.class;
 	int version() ;
+	/**
+	 * Code of tag up to given version if it was different, 0 means code was the same
+	 * @return
+	 */
+	int code() default 0 ;
 }
@@ -0,0 +1,45 @@
+package com.linkedlogics.bio.codec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import com.linkedlogics.bio.BioJavaObjectCodec;
+import com.linkedlogics.bio.stream.BiFastStream;
+import com.linkedlogics.bio.stream.BoFastStream;
+
+/**
+ * Encodes big decimal as scale followed by two's complement bytes of unscaled value
+ * @author rdavudov
+ *
+ */
+public class BigDecimalCodec implements BioJavaObjectCodec<BigDecimal> {
+	public static final int ID = 1 ;
+	
+	@Override
+	public int getId() {
+		return ID ;
+	}
+
+	@Override
+	public Class<BigDecimal> getJavaClass() {
+		return BigDecimal.class ;
+	}
+
+	@Override
+	public int getLength(BigDecimal value) {
+		return 4 + value.unscaledValue().bitLength() / 8 + 1 ;
+	}
+
+	@Override
+	public void write(BoFastStream stream, BigDecimal value) {
+		stream.writeInt(value.scale());
+		stream.write(value.unscaledValue().toByteArray());
+	}
+
+	@Override
+	public BigDecimal read(BiFastStream stream, int length) {
+		int scale = stream.readInt() ;
+		byte[] unscaled = stream.read(length - 4) ;
+		return new BigDecimal(new BigInteger(unscaled), scale) ;
+	}
+}
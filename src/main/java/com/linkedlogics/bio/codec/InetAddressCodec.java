@@ -0,0 +1,44 @@
+package com.linkedlogics.bio.codec;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+
+import com.linkedlogics.bio.BioJavaObjectCodec;
+import com.linkedlogics.bio.stream.BiFastStream;
+import com.linkedlogics.bio.stream.BoFastStream;
+import com.linkedlogics.bio.utility.ByteUtility;
+
+/**
+ * Encodes inet address as address type and raw address bytes using {@link ByteUtility#addressToBytes(InetAddress)}
+ * @author rdavudov
+ *
+ */
+public class InetAddressCodec implements BioJavaObjectCodec<InetAddress> {
+	public static final int ID = 5 ;
+	
+	@Override
+	public int getId() {
+		return ID ;
+	}
+
+	@Override
+	public Class<InetAddress> getJavaClass() {
+		return InetAddress.class ;
+	}
+
+	@Override
+	public int getLength(InetAddress value) {
+		return value instanceof Inet4Address ? 6 : 18 ;
+	}
+
+	@Override
+	public void write(BoFastStream stream, InetAddress value) {
+		stream.write(ByteUtility.addressToBytes(value));
+	}
+
+	@Override
+	public InetAddress read(BiFastStream stream, int length) {
+		byte[] bytes = stream.read(length) ;
+		return ByteUtility.bytesToAddress(bytes) ;
+	}
+}
@@ -0,0 +1,44 @@
+package com.linkedlogics.bio.codec;
+
+import java.time.Instant;
+
+import com.linkedlogics.bio.BioJavaObjectCodec;
+import com.linkedlogics.bio.stream.BiFastStream;
+import com.linkedlogics.bio.stream.BoFastStream;
+
+/**
+ * Encodes instant as epoch seconds and nanos
+ * @author rdavudov
+ *
+ */
+public class InstantCodec implements BioJavaObjectCodec<Instant> {
+	public static final int ID = 4 ;
+	
+	@Override
+	public int getId() {
+		return ID ;
+	}
+
+	@Override
+	public Class<Instant> getJavaClass() {
+		return Instant.class ;
+	}
+
+	@Override
+	public int getLength(Instant value) {
+		return 12 ;
+	}
+
+	@Override
+	public void write(BoFastStream stream, Instant value) {
+		stream.writeLong(value.getEpochSecond());
+		stream.writeInt(value.getNano());
+	}
+
+	@Override
+	public Instant read(BiFastStream stream, int length) {
+		long seconds = stream.readLong() ;
+		int nanos = stream.readInt() ;
+		return Instant.ofEpochSecond(seconds, nanos) ;
+	}
+}
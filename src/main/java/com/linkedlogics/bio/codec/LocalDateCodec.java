@@ -0,0 +1,46 @@
+package com.linkedlogics.bio.codec;
+
+import java.time.LocalDate;
+
+import com.linkedlogics.bio.BioJavaObjectCodec;
+import com.linkedlogics.bio.stream.BiFastStream;
+import com.linkedlogics.bio.stream.BoFastStream;
+
+/**
+ * Encodes local date as year, month and day
+ * @author rdavudov
+ *
+ */
+public class LocalDateCodec implements BioJavaObjectCodec<LocalDate> {
+	public static final int ID = 3 ;
+	
+	@Override
+	public int getId() {
+		return ID ;
+	}
+
+	@Override
+	public Class<LocalDate> getJavaClass() {
+		return LocalDate.class ;
+	}
+
+	@Override
+	public int getLength(LocalDate value) {
+		return 6 ;
+	}
+
+	@Override
+	public void write(BoFastStream stream, LocalDate value) {
+		stream.writeInt(value.getYear());
+		stream.write(value.getMonthValue());
+		stream.write(value.getDayOfMonth());
+	}
+
+	@Override
+	public LocalDate read(BiFastStream stream, int length) {
+		int year = stream.readInt() ;
+		int month = stream.readByte() ;
+		int day = stream.readByte() ;
+		return LocalDate.of(year, month, day) ;
+	}
+}
@@ -0,0 +1,44 @@
+package com.linkedlogics.bio.codec;
+
+import java.util.UUID;
+
+import com.linkedlogics.bio.BioJavaObjectCodec;
+import com.linkedlogics.bio.stream.BiFastStream;
+import com.linkedlogics.bio.stream.BoFastStream;
+
+/**
+ * Encodes uuid as its most and least significant bits
+ * @author rdavudov
+ *
+ */
+public class UUIDCodec implements BioJavaObjectCodec<UUID> {
+	public static final int ID = 2 ;
+	
+	@Override
+	public int getId() {
+		return ID ;
+	}
+
+	@Override
+	public Class<UUID> getJavaClass() {
+		return UUID.class ;
+	}
+
+	@Override
+	public int getLength(UUID value) {
+		return 16 ;
+	}
+
+	@Override
+	public void write(BoFastStream stream, UUID value) {
+		stream.writeLong(value.getMostSignificantBits());
+		stream.writeLong(value.getLeastSignificantBits());
+	}
+
+	@Override
+	public UUID read(BiFastStream stream, int length) {
+		long mostSigBits = stream.readLong() ;
+		long leastSigBits = stream.readLong() ;
+		return new UUID(mostSigBits, leastSigBits) ;
+	}
+}
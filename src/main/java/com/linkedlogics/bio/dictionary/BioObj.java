@@ -6,6 +6,7 @@ import java.util.HashMap;
 import com.linkedlogics.bio.BioDictionary;
 import com.linkedlogics.bio.BioObject;
 import com.linkedlogics.bio.exception.DictionaryException;
+import com.linkedlogics.bio.parser.BioObjCodec;
 
 /**
  * BioObj is a definition a bio object containing all definitions about its possible tags, parent objs
@@ -65,6 +66,14 @@ public class BioObj {
 	 * Indicates code is auto generated
 	 */
 	private boolean isCodeGenerated ;
+	/**
+	 * Codec compiled at dictionary build time, it is reset whenever tags are changed
+	 */
+	private BioObjCodec codec ;
+	/**
+	 * Layout of tags in slot based storage, it is created on first use and reset whenever tags are changed
+	 */
+	private BioSlotLayout slotLayout ;
 	
 	public BioObj() {
 		
@@ -104,6 +113,8 @@ public class BioObj {
 
 			nameMap.put(tag.getName(), tag) ;
 			codeMap.put(tag.getCode(), tag) ;
+			codec = null ;
+			slotLayout = null ;
 //			Logger.log(LoggerLevel.TRACE, "creating bio tag (code=%d, name=%s) in %s", tag.getCode(), tag.getName(), type);
 			if (tag.isMandatory()) {
 				mandatoryTagList.add(tag) ;
@@ -125,6 +136,8 @@ public class BioObj {
 	public void removeTag(BioTag tag) {
 		nameMap.remove(tag.getName()) ;
 		codeMap.remove(tag.getCode()) ;
+		codec = null ;
+		slotLayout = null ;
 	}
 	
 	/**
@@ -238,6 +251,27 @@ public class BioObj {
 		this.isLarge = isLarge;
 	}
 
+	public BioObjCodec getCodec() {
+		return codec;
+	}
+
+	public void setCodec(BioObjCodec codec) {
+		this.codec = codec;
+	}
+
+	/**
+	 * Returns layout of tags in slot based storage
+	 * @return
+	 */
+	public BioSlotLayout getSlotLayout() {
+		BioSlotLayout layout = slotLayout ;
+		if (layout == null) {
+			layout = new BioSlotLayout(this) ;
+			slotLayout = layout ;
+		}
+		return layout ;
+	}
+
 	public String toString() {
 		return type ;
 	}
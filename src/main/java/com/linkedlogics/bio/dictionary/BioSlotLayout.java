@@ -0,0 +1,170 @@
+package com.linkedlogics.bio.dictionary;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Layout of tags of a bio obj in slot based storage. Every tag gets a dense slot number, scalar numeric and boolean tags
+ * are additionally assigned an index in a long[] or double[] array so that their values can be kept unboxed, other tags
+ * are assigned an index in an Object[] array. Super tags don't have slots
+ * @author rdavudov
+ *
+ */
+public class BioSlotLayout {
+	/**
+	 * Kinds of slot storage
+	 */
+	public static final int KIND_LONG = 0 ;
+	public static final int KIND_DOUBLE = 1 ;
+	public static final int KIND_OBJECT = 2 ;
+
+	private final Slot[] slots ;
+	private final HashMap<String, Slot> nameMap = new HashMap<String, Slot>() ;
+	private final int longCount ;
+	private final int doubleCount ;
+	private final int objectCount ;
+
+	public BioSlotLayout(BioObj obj) {
+		ArrayList<BioTag> tags = new ArrayList<BioTag>(obj.getNameMap().values()) ;
+		slots = new Slot[tags.size()] ;
+		int longs = 0 ;
+		int doubles = 0 ;
+		int objects = 0 ;
+		for (int i = 0; i < slots.length; i++) {
+			BioTag tag = tags.get(i) ;
+			Class<?> boxedClass = getBoxedClass(tag) ;
+			Slot slot ;
+			if (boxedClass == Double.class || boxedClass == Float.class) {
+				slot = new Slot(tag, i, KIND_DOUBLE, doubles++, boxedClass) ;
+			} else if (boxedClass != null) {
+				slot = new Slot(tag, i, KIND_LONG, longs++, boxedClass) ;
+			} else {
+				slot = new Slot(tag, i, KIND_OBJECT, objects++, null) ;
+			}
+			slots[i] = slot ;
+			nameMap.put(tag.getName(), slot) ;
+		}
+		this.longCount = longs ;
+		this.doubleCount = doubles ;
+		this.objectCount = objects ;
+	}
+
+	/**
+	 * Returns class of values which are kept unboxed or null if values of tag are kept as objects
+	 * @param tag
+	 * @return
+	 */
+	private static Class<?> getBoxedClass(BioTag tag) {
+		if (tag.isArray() || tag.isList()) {
+			return null ;
+		}
+		switch (tag.getType()) {
+		case Long:
+		case Time:
+			return Long.class ;
+		case Integer:
+			return Integer.class ;
+		case Short:
+			return Short.class ;
+		case Byte:
+			return Byte.class ;
+		case Boolean:
+			return Boolean.class ;
+		case Double:
+			return Double.class ;
+		case Float:
+			return Float.class ;
+		default:
+			return null ;
+		}
+	}
+
+	/**
+	 * Returns slot of tag by its name
+	 * @param name
+	 * @return null if tag has no slot
+	 */
+	public Slot getSlot(String name) {
+		return nameMap.get(name) ;
+	}
+
+	/**
+	 * Returns slot by its number
+	 * @param slot
+	 * @return
+	 */
+	public Slot getSlot(int slot) {
+		return slots[slot] ;
+	}
+
+	public int size() {
+		return slots.length ;
+	}
+
+	public int getLongCount() {
+		return longCount ;
+	}
+
+	public int getDoubleCount() {
+		return doubleCount ;
+	}
+
+	public int getObjectCount() {
+		return objectCount ;
+	}
+
+	/**
+	 * Slot of a single tag
+	 */
+	public static class Slot {
+		private final BioTag tag ;
+		private final int slot ;
+		private final int kind ;
+		private final int index ;
+		private final Class<?> boxedClass ;
+
+		Slot(BioTag tag, int slot, int kind, int index, Class<?> boxedClass) {
+			this.tag = tag ;
+			this.slot = slot ;
+			this.kind = kind ;
+			this.index = index ;
+			this.boxedClass = boxedClass ;
+		}
+
+		public BioTag getTag() {
+			return tag ;
+		}
+
+		/**
+		 * Returns dense slot number
+		 * @return
+		 */
+		public int getSlot() {
+			return slot ;
+		}
+
+		/**
+		 * Returns one of {@link BioSlotLayout#KIND_LONG}, {@link BioSlotLayout#KIND_DOUBLE} or {@link BioSlotLayout#KIND_OBJECT}
+		 * @return
+		 */
+		public int getKind() {
+			return kind ;
+		}
+
+		/**
+		 * Returns index in array of slot kind
+		 * @return
+		 */
+		public int getIndex() {
+			return index ;
+		}
+
+		/**
+		 * Returns class of values which can be kept unboxed in this slot
+		 * @return
+		 */
+		public Class<?> getBoxedClass() {
+			return boxedClass ;
+		}
+	}
+}
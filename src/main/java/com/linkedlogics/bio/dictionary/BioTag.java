@@ -1,5 +1,6 @@
 package com.linkedlogics.bio.dictionary;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 
 import com.linkedlogics.bio.BioDictionary;
@@ -99,6 +100,10 @@ public class BioTag {
 	protected String expression ;
 	
 	protected boolean isCodeGenerated ;
+	/**
+	 * Definitions of tag in older versions of bio obj
+	 */
+	protected ArrayList<BioTagCompatibility> compatibilities ;
 	
 	public BioTag(int code, String name, BioType type) {
 		this(code, name, type, null) ;
@@ -109,9 +114,6 @@ public class BioTag {
 		this.name = name ;
 		this.type = type ;
 		this.javaClass = javaClass ;
-		if (javaClass == null) {
-			javaClass = getJavaClass(getType()) ;
-		}
 	}
 	
 	public BioEnumObj getEnumObj() {
@@ -189,6 +191,10 @@ public class BioTag {
 	}
 
 	public Class getJavaClass() {
+		// java class is defined explicitly only for java objects and java enums, others are derived from type
+		if (javaClass != null && javaClass != void.class && (type == BioType.JavaObject || type == BioType.JavaEnum)) {
+			return javaClass ;
+		}
 		return getJavaClass(getType());
 	}
 
@@ -271,6 +277,39 @@ public class BioTag {
 		return expression ;
 	}
 	
+	/**
+	 * Returns definitions of tag in older versions or null if tag was not changed
+	 * @return
+	 */
+	public ArrayList<BioTagCompatibility> getCompatibilities() {
+		return compatibilities;
+	}
+
+	public void addCompatibility(BioTagCompatibility compatibility) {
+		if (compatibilities == null) {
+			compatibilities = new ArrayList<BioTagCompatibility>() ;
+		}
+		compatibilities.add(compatibility) ;
+	}
+	
+	/**
+	 * Returns definition of tag used by given bio obj version, it is the compatibility with the lowest version 
+	 * which is not less than given version
+	 * @param version
+	 * @return null if given version uses current definition
+	 */
+	public BioTagCompatibility getCompatibility(int version) {
+		BioTagCompatibility result = null ;
+		if (compatibilities != null) {
+			for (BioTagCompatibility compatibility : compatibilities) {
+				if (compatibility.getVersion() >= version && (result == null || compatibility.getVersion() < result.getVersion())) {
+					result = compatibility ;
+				}
+			}
+		}
+		return result ;
+	}
+	
 	public boolean isCodeGenerated() {
 		return isCodeGenerated;
 	}
@@ -0,0 +1,70 @@
+package com.linkedlogics.bio.dictionary;
+
+/**
+ * BioTagCompatibility is a definition of a tag as it was encoded by bio objects up to (and including) given version, 
+ * it is used to decode payloads of older versions directly into current tag definition
+ * @author rdavudov
+ *
+ */
+public class BioTagCompatibility {
+	/**
+	 * Last bio obj version having this definition
+	 */
+	private int version ;
+	/**
+	 * Code of tag in that version, 0 if it is the same as current code
+	 */
+	private int code ;
+	/**
+	 * Type of tag in that version
+	 */
+	private BioType type ;
+	
+	private boolean isArray ;
+	
+	private boolean isList ;
+	
+	private Class javaClass ;
+	
+	public BioTagCompatibility(int version, int code, BioType type) {
+		this.version = version ;
+		this.code = code ;
+		this.type = type ;
+	}
+
+	public int getVersion() {
+		return version;
+	}
+
+	public int getCode() {
+		return code;
+	}
+
+	public BioType getType() {
+		return type;
+	}
+
+	public boolean isArray() {
+		return isArray;
+	}
+
+	public void setArray(boolean isArray) {
+		this.isArray = isArray;
+	}
+
+	public boolean isList() {
+		return isList;
+	}
+
+	public void setList(boolean isList) {
+		this.isList = isList;
+	}
+
+	public Class getJavaClass() {
+		return javaClass;
+	}
+
+	public void setJavaClass(Class javaClass) {
+		this.javaClass = javaClass;
+	}
+}
@@ -14,6 +14,7 @@ import com.linkedlogics.bio.dictionary.BioEnumObj;
 import com.linkedlogics.bio.dictionary.BioFunc;
 import com.linkedlogics.bio.dictionary.BioObj;
 import com.linkedlogics.bio.dictionary.BioTag;
+import com.linkedlogics.bio.dictionary.BioTagCompatibility;
 import com.linkedlogics.bio.dictionary.BioType;
 import com.linkedlogics.bio.exception.DictionaryException;
 import com.linkedlogics.bio.exception.ExpressionException;
@@ -269,6 +270,11 @@ public class AnnotationReader implements DictionaryReader {
 								tag.setCode(builder.getTagHahser().hash(tag.getName()));
 								tag.setCodeGenerated(true);
 							}
+							// definitions of tag in older versions are used to decode old payloads
+							com.linkedlogics.bio.annotation.BioTagCompatibility[] compatibilities = fields[j].getAnnotationsByType(com.linkedlogics.bio.annotation.BioTagCompatibility.class) ;
+							for (int k = 0; k < compatibilities.length; k++) {
+								tag.addCompatibility(createCompatibility(compatibilities[k]));
+							}
 							obj.addTag(tag);
 
 						} catch (Throwable e) {
@@ -307,6 +313,27 @@ public class AnnotationReader implements DictionaryReader {
 				annotation.initial(), annotation.expression()) ;
 	}
 
+	/**
+	 * Creates older definition of a tag from annotation information
+	 * @param annotation
+	 * @return
+	 */
+	private static BioTagCompatibility createCompatibility(com.linkedlogics.bio.annotation.BioTagCompatibility annotation) {
+		BioType bioType = BioType.BioObject;
+		try {
+			bioType = Enum.valueOf(BioType.class, annotation.type());
+		} catch (Exception e) {
+
+		}
+		BioTagCompatibility compatibility = new BioTagCompatibility(annotation.version(), annotation.code(), bioType) ;
+		compatibility.setArray(annotation.isArray());
+		compatibility.setList(annotation.isList());
+		if (bioType == BioType.JavaEnum || bioType == BioType.JavaObject) {
+			compatibility.setJavaClass(annotation.javaClass());
+		}
+		return compatibility ;
+	}
+
 	/**
 	 * Creates bio super tag from annotation information such as code, type etc.
 	 * @param field
@@ -0,0 +1,60 @@
+package com.linkedlogics.bio.parser;
+
+import com.linkedlogics.bio.stream.BoFastStream;
+
+/**
+ * Per thread encoding context which keeps output buffer at its high-water mark, so that steady state encoding
+ * does not allocate and grow a new buffer for each call. Buffers larger than {@link #MAX_RETAINED_SIZE} are not kept
+ * to avoid holding memory after a single huge object
+ * @author rdavudov
+ *
+ */
+class BioCodecContext {
+	/**
+	 * Maximum buffer size which is kept between encodings
+	 */
+	static final int MAX_RETAINED_SIZE = 1024 * 1024 ;
+	
+	private static final ThreadLocal<BioCodecContext> contexts = new ThreadLocal<BioCodecContext>() {
+		@Override
+		protected BioCodecContext initialValue() {
+			return new BioCodecContext() ;
+		}
+	};
+	
+	private BoFastStream outputStream = new BoFastStream() ;
+	private boolean isUsed ;
+	
+	/**
+	 * Returns context of current thread, if it is already in use (nested encode call) then a new temporary context is returned.
+	 * Modes of stream are reset as well since a failed encoding could have left them changed
+	 * @return
+	 */
+	static BioCodecContext acquire() {
+		BioCodecContext context = contexts.get() ;
+		if (context.isUsed) {
+			context = new BioCodecContext() ;
+		}
+		context.isUsed = true ;
+		context.outputStream.reset();
+		context.outputStream.setLengthAsInt(false);
+		context.outputStream.setCompact(false);
+		context.outputStream.setCanonical(false);
+		context.outputStream.disableStringTable();
+		return context ;
+	}
+	
+	/**
+	 * Releases context so that it can be used by next encoding
+	 */
+	void release() {
+		isUsed = false ;
+		if (outputStream.getCapacity() > MAX_RETAINED_SIZE) {
+			outputStream = new BoFastStream() ;
+		}
+	}
+	
+	BoFastStream getOutputStream() {
+		return outputStream ;
+	}
+}
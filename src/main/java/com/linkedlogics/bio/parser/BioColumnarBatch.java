@@ -0,0 +1,381 @@
+package com.linkedlogics.bio.parser;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+
+import com.linkedlogics.bio.BioDictionary;
+import com.linkedlogics.bio.BioObject;
+import com.linkedlogics.bio.dictionary.BioObj;
+import com.linkedlogics.bio.dictionary.BioTag;
+import com.linkedlogics.bio.dictionary.BioType;
+import com.linkedlogics.bio.exception.ParserException;
+import com.linkedlogics.bio.stream.BiFastStream;
+
+/**
+ * Read view of a columnar batch created by {@link BioObjectColumnarParser}. Only header and column directory are read initially,
+ * each column is decoded when it is requested so that aggregations over a single tag do not decode other tags or create bio objects.
+ * Rows which don't have the tag are reported by {@link #getPresence(String)} and have default values in primitive columns
+ * @author rdavudov
+ *
+ */
+public class BioColumnarBatch {
+	private final byte[] bytes ;
+	private final BioObjectBinaryParser binaryParser ;
+	private final BioObj obj ;
+	private final int objVersion ;
+	private final int size ;
+	private final HashMap<String, Column> columns = new HashMap<String, Column>() ;
+	private final ArrayList<Column> columnList = new ArrayList<Column>() ;
+
+	BioColumnarBatch(byte[] bytes, BioObjectBinaryParser binaryParser) {
+		this.bytes = bytes ;
+		this.binaryParser = binaryParser ;
+		BiFastStream stream = new BiFastStream(bytes) ;
+		int version = stream.readByte() ;
+		if (version != BioObjectColumnarParser.FORMAT_VERSION) {
+			throw new ParserException("unsupported columnar format " + version) ;
+		}
+		int dictionary = stream.readByte() ;
+		int objCode = stream.readInt() ;
+		this.objVersion = stream.readInt() ;
+		this.size = stream.readInt() ;
+		final BioDictionary bioDictionary = BioDictionary.findDictionary(dictionary) ;
+		if (bioDictionary == null) {
+			throw new ParserException("bio dictionary " + dictionary + " is not found");
+		}
+		this.obj = bioDictionary.getObjByCode(objCode) ;
+		if (obj == null) {
+			throw new ParserException("bio obj with " + objCode + " is not found");
+		}
+		int columnCount = stream.readInt() ;
+		int[] codes = new int[columnCount] ;
+		int[] kinds = new int[columnCount] ;
+		int[] offsets = new int[columnCount] ;
+		int[] lengths = new int[columnCount] ;
+		for (int i = 0; i < columnCount; i++) {
+			codes[i] = stream.readInt() ;
+			kinds[i] = stream.readByte() ;
+			offsets[i] = stream.readInt() ;
+			lengths[i] = stream.readInt() ;
+		}
+		int dataStart = stream.getPosition() ;
+		for (int i = 0; i < columnCount; i++) {
+			BioTag tag = obj.getTag(codes[i]) ;
+			if (tag == null) {
+				tag = bioDictionary.getSuperTag(codes[i]) ;
+			}
+			// columns of unknown tags are ignored
+			if (tag != null) {
+				Column column = new Column(tag, kinds[i], dataStart + offsets[i], lengths[i]) ;
+				columns.put(tag.getName(), column) ;
+				columnList.add(column) ;
+			}
+		}
+	}
+
+	/**
+	 * Returns number of rows
+	 * @return
+	 */
+	public int size() {
+		return size ;
+	}
+
+	/**
+	 * Returns bio obj of rows
+	 * @return
+	 */
+	public BioObj getObj() {
+		return obj ;
+	}
+
+	/**
+	 * Checks whether batch has a column for tag
+	 * @param tag
+	 * @return
+	 */
+	public boolean hasColumn(String tag) {
+		return columns.containsKey(tag) ;
+	}
+
+	/**
+	 * Returns rows which have the tag
+	 * @param tag
+	 * @return
+	 */
+	public BitSet getPresence(String tag) {
+		Column column = columns.get(tag) ;
+		if (column == null) {
+			return new BitSet(size) ;
+		}
+		return BitSet.valueOf(column.readPresence(column.open())) ;
+	}
+
+	/**
+	 * Returns column of Long or Time tag
+	 * @param tag
+	 * @return
+	 */
+	public long[] getLongColumn(String tag) {
+		Column column = getColumn(tag, BioObjectColumnarParser.KIND_LONG) ;
+		long[] result = new long[size] ;
+		if (column != null) {
+			BiFastStream stream = column.open() ;
+			byte[] presence = column.readPresence(stream) ;
+			long[] values = stream.readPrimitiveLongArray() ;
+			for (int row = 0, i = 0; i < values.length; row++) {
+				if (isPresent(presence, row)) {
+					result[row] = values[i++] ;
+				}
+			}
+		}
+		return result ;
+	}
+
+	/**
+	 * Returns column of Integer, Short, Byte, Boolean (as 0 or 1) or BioEnum (as ordinal) tag
+	 * @param tag
+	 * @return
+	 */
+	public int[] getIntColumn(String tag) {
+		Column column = getColumn(tag, BioObjectColumnarParser.KIND_INT) ;
+		int[] result = new int[size] ;
+		if (column != null) {
+			BiFastStream stream = column.open() ;
+			byte[] presence = column.readPresence(stream) ;
+			int[] values = stream.readPrimitiveIntArray() ;
+			for (int row = 0, i = 0; i < values.length; row++) {
+				if (isPresent(presence, row)) {
+					result[row] = values[i++] ;
+				}
+			}
+		}
+		return result ;
+	}
+
+	/**
+	 * Returns column of Double or Float tag
+	 * @param tag
+	 * @return
+	 */
+	public double[] getDoubleColumn(String tag) {
+		Column column = getColumn(tag, BioObjectColumnarParser.KIND_DOUBLE) ;
+		double[] result = new double[size] ;
+		if (column != null) {
+			BiFastStream stream = column.open() ;
+			byte[] presence = column.readPresence(stream) ;
+			double[] values = stream.readPrimitiveDoubleArray() ;
+			for (int row = 0, i = 0; i < values.length; row++) {
+				if (isPresent(presence, row)) {
+					result[row] = values[i++] ;
+				}
+			}
+		}
+		return result ;
+	}
+
+	/**
+	 * Returns column of String or UtfString tag, rows without tag have null. Equal values share the same string instance
+	 * @param tag
+	 * @return
+	 */
+	public String[] getStringColumn(String tag) {
+		Column column = getColumn(tag, BioObjectColumnarParser.KIND_STRING) ;
+		String[] result = new String[size] ;
+		if (column != null) {
+			BiFastStream stream = column.open() ;
+			byte[] presence = column.readPresence(stream) ;
+			String[] dictionary = readStringDictionary(stream) ;
+			int count = stream.readInt() ;
+			for (int row = 0, i = 0; i < count; row++) {
+				if (isPresent(presence, row)) {
+					result[row] = dictionary[readStringIndex(stream, dictionary.length)] ;
+					i++ ;
+				}
+			}
+		}
+		return result ;
+	}
+
+	/**
+	 * Returns column values as they would be in decoded bio objects, rows without tag have null
+	 * @param tag
+	 * @return
+	 */
+	public Object[] getValues(String tag) {
+		Object[] result = new Object[size] ;
+		Column column = columns.get(tag) ;
+		if (column != null) {
+			column.readValues(result);
+		}
+		return result ;
+	}
+
+	/**
+	 * Decodes all rows to bio objects
+	 * @return
+	 */
+	public List<BioObject> toList() {
+		try {
+			BioObject[] rows = new BioObject[size] ;
+			for (int i = 0; i < size; i++) {
+				rows[i] = createBio() ;
+			}
+			Object[] values = new Object[size] ;
+			for (Column column : columnList) {
+				column.readValues(values);
+				for (int i = 0; i < size; i++) {
+					if (values[i] != null) {
+						rows[i].put(column.tag.getName(), values[i]) ;
+						values[i] = null ;
+					}
+				}
+			}
+			ArrayList<BioObject> list = new ArrayList<BioObject>(size) ;
+			for (int i = 0; i < size; i++) {
+				list.add(rows[i]) ;
+			}
+			return list ;
+		} catch (ParserException e) {
+			throw e ;
+		} catch (Throwable e) {
+			throw new ParserException(e) ;
+		}
+	}
+
+	/**
+	 * Creates an empty bio object of batch obj
+	 * @return
+	 * @throws Exception
+	 */
+	private BioObject createBio() throws Exception {
+		if (obj.getBioClass() != null) {
+			BioObject bio = (BioObject) obj.getBioClass().getConstructor().newInstance().empty() ;
+			bio.setBioCode(obj.getCode());
+			bio.setBioName(obj.getName());
+			bio.setBioVersion(objVersion);
+			return bio ;
+		}
+		return new BioObject(obj.getCode(), null, objVersion) ;
+	}
+
+	private Column getColumn(String tag, int kind) {
+		Column column = columns.get(tag) ;
+		if (column != null && column.kind != kind) {
+			throw new ParserException("tag " + tag + " is " + column.tag.getType() + " and can't be read as this column type") ;
+		}
+		return column ;
+	}
+
+	private static boolean isPresent(byte[] presence, int row) {
+		return (presence[row >> 3] & (1 << (row & 7))) != 0 ;
+	}
+
+	private static String[] readStringDictionary(BiFastStream stream) {
+		String[] dictionary = new String[stream.readInt()] ;
+		for (int i = 0; i < dictionary.length; i++) {
+			dictionary[i] = stream.readUtfString() ;
+		}
+		return dictionary ;
+	}
+
+	private static int readStringIndex(BiFastStream stream, int dictionarySize) {
+		if (dictionarySize <= 0x100) {
+			return stream.readByte() & 0xFF ;
+		} else if (dictionarySize <= 0x10000) {
+			return stream.readShort() & 0xFFFF ;
+		}
+		return stream.readInt() ;
+	}
+
+	/**
+	 * Location and type of a single column
+	 */
+	private class Column {
+		private final BioTag tag ;
+		private final int kind ;
+		private final int offset ;
+		private final int length ;
+
+		Column(BioTag tag, int kind, int offset, int length) {
+			this.tag = tag ;
+			this.kind = kind ;
+			this.offset = offset ;
+			this.length = length ;
+		}
+
+		BiFastStream open() {
+			BiFastStream stream = new BiFastStream(bytes, offset, length) ;
+			stream.setLengthAsInt(true);
+			return stream ;
+		}
+
+		byte[] readPresence(BiFastStream stream) {
+			return stream.read((size + 7) / 8) ;
+		}
+
+		/**
+		 * Reads values converted to tag type into given array
+		 * @param values
+		 */
+		void readValues(Object[] values) {
+			switch (kind) {
+			case BioObjectColumnarParser.KIND_LONG:
+				long[] longs = getLongColumn(tag.getName()) ;
+				BitSet presence = getPresence(tag.getName()) ;
+				for (int i = presence.nextSetBit(0); i >= 0; i = presence.nextSetBit(i + 1)) {
+					values[i] = longs[i] ;
+				}
+				break ;
+			case BioObjectColumnarParser.KIND_INT:
+				int[] ints = getIntColumn(tag.getName()) ;
+				presence = getPresence(tag.getName()) ;
+				for (int i = presence.nextSetBit(0); i >= 0; i = presence.nextSetBit(i + 1)) {
+					switch (tag.getType()) {
+					case Short:
+						values[i] = (short) ints[i] ;
+						break ;
+					case Byte:
+						values[i] = (byte) ints[i] ;
+						break ;
+					case Boolean:
+						values[i] = ints[i] == 1 ;
+						break ;
+					case BioEnum:
+						values[i] = tag.getEnumObj() != null ? tag.getEnumObj().getBioEnum(ints[i]) : null ;
+						break ;
+					default:
+						values[i] = ints[i] ;
+					}
+				}
+				break ;
+			case BioObjectColumnarParser.KIND_DOUBLE:
+				double[] doubles = getDoubleColumn(tag.getName()) ;
+				presence = getPresence(tag.getName()) ;
+				for (int i = presence.nextSetBit(0); i >= 0; i = presence.nextSetBit(i + 1)) {
+					values[i] = tag.getType() == BioType.Float ? (Object) (float) doubles[i] : (Object) doubles[i] ;
+				}
+				break ;
+			case BioObjectColumnarParser.KIND_STRING:
+				String[] strings = getStringColumn(tag.getName()) ;
+				System.arraycopy(strings, 0, values, 0, size);
+				break ;
+			default:
+				BiFastStream stream = open() ;
+				byte[] bitmap = readPresence(stream) ;
+				int count = stream.readInt() ;
+				for (int row = 0, i = 0; i < count; row++) {
+					if (isPresent(bitmap, row)) {
+						int tagInfo = stream.readTagInfo() ;
+						stream.readTagCode(tagInfo) ;
+						int container = BiFastStream.getTagContainer(tagInfo) ;
+						values[row] = binaryParser.readValue(obj, BiFastStream.getTagType(tagInfo), container == 1, container == 2, tag, stream) ;
+						i++ ;
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,301 @@
+package com.linkedlogics.bio.parser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.linkedlogics.bio.BioDictionary;
+import com.linkedlogics.bio.BioEnum;
+import com.linkedlogics.bio.BioExpression;
+import com.linkedlogics.bio.dictionary.BioEnumObj;
+import com.linkedlogics.bio.dictionary.BioObj;
+import com.linkedlogics.bio.dictionary.BioTag;
+import com.linkedlogics.bio.dictionary.BioTagCompatibility;
+import com.linkedlogics.bio.dictionary.BioType;
+import com.linkedlogics.bio.exception.ParserException;
+import com.linkedlogics.bio.stream.BiFastStream;
+import com.linkedlogics.bio.stream.BoFastStream;
+
+/**
+ * Codec of a bio obj compiled at dictionary build time. Tags of obj and super tags of its dictionary are flattened into
+ * a single lookup and every scalar tag gets its own writer and reader, so that tag lookups and type dispatch are done once
+ * instead of for every value. Tags without compiled writer or reader (arrays, lists, nested objects etc.) are handled
+ * by generic path of {@link BioObjectBinaryParser}, output of both paths is identical
+ * @author rdavudov
+ *
+ */
+public class BioObjCodec {
+	private final HashMap<String, TagCodec> nameMap = new HashMap<String, TagCodec>() ;
+	private final HashMap<Integer, TagCodec> codeMap = new HashMap<Integer, TagCodec>() ;
+	/**
+	 * All tags in lookup order
+	 */
+	private final ArrayList<BioTag> tags = new ArrayList<BioTag>() ;
+	/**
+	 * Read plans of older versions keyed by last version they are used for
+	 */
+	private final TreeMap<Integer, BioReadPlan> plans = new TreeMap<Integer, BioReadPlan>() ;
+
+	private BioObjCodec() {
+
+	}
+
+	/**
+	 * Compiles codec of given bio obj, must be called after all tags are resolved in dictionary
+	 * @param obj
+	 * @return
+	 */
+	public static BioObjCodec compile(BioObj obj) {
+		BioObjCodec codec = new BioObjCodec() ;
+		BioDictionary dictionary = BioDictionary.getDictionary(obj.getDictionary()) ;
+		// super tags are added first so that obj tags with same name or code override them like in generic lookup
+		if (dictionary != null) {
+			for (BioTag tag : dictionary.getSuperTagCodeMap().values()) {
+				codec.add(tag);
+			}
+		}
+		for (BioTag tag : obj.getCodeMap().values()) {
+			codec.add(tag);
+		}
+		// every version mentioned in compatibilities of tags gets its own read plan
+		TreeSet<Integer> versions = new TreeSet<Integer>() ;
+		for (BioTag tag : codec.tags) {
+			if (tag.getCompatibilities() != null) {
+				for (BioTagCompatibility compatibility : tag.getCompatibilities()) {
+					if (compatibility.getVersion() < obj.getVersion()) {
+						versions.add(compatibility.getVersion()) ;
+					}
+				}
+			}
+		}
+		for (Integer version : versions) {
+			codec.plans.put(version, new BioReadPlan(codec.tags, version)) ;
+		}
+		return codec ;
+	}
+
+	private void add(BioTag tag) {
+		TagCodec tagCodec = new TagCodec(tag, createWriter(tag), createReader(tag)) ;
+		nameMap.put(tag.getName(), tagCodec) ;
+		codeMap.put(tag.getCode(), tagCodec) ;
+		tags.add(tag) ;
+	}
+
+	/**
+	 * Writes tag value using compiled writer
+	 * @param stream
+	 * @param key
+	 * @param value
+	 * @return false if there is no compiled writer for tag and generic path must be used
+	 */
+	boolean write(BoFastStream stream, String key, Object value) {
+		TagCodec tagCodec = nameMap.get(key) ;
+		if (tagCodec == null || tagCodec.writer == null) {
+			return false ;
+		}
+		try {
+			tagCodec.writer.write(stream, value);
+		} catch (Exception e) {
+			throw new ParserException("exception " + e.getClass().getName() + " for tag " + key + " value " + value);
+		}
+		return true ;
+	}
+
+	/**
+	 * Returns compiled tag by tag code
+	 * @param code
+	 * @return
+	 */
+	TagCodec getTag(int code) {
+		return codeMap.get(code) ;
+	}
+
+	/**
+	 * Returns read plan for payloads of given version
+	 * @param version
+	 * @return null if payload can be read using current tag definitions
+	 */
+	BioReadPlan getPlan(int version) {
+		if (plans.isEmpty()) {
+			return null ;
+		}
+		Entry<Integer, BioReadPlan> plan = plans.ceilingEntry(version) ;
+		return plan != null ? plan.getValue() : null ;
+	}
+
+	/**
+	 * Creates writer for scalar tags, others are written by generic path
+	 * @param tag
+	 * @return
+	 */
+	private static TagWriter createWriter(final BioTag tag) {
+		if (!tag.isEncodable()) {
+			return (stream, value) -> {} ;
+		}
+		if (tag.isArray() || tag.isList()) {
+			return null ;
+		}
+		switch (tag.getType()) {
+		case Long:
+		case Time:
+			return (stream, value) -> {
+				if (!(value instanceof BioExpression)) {
+					stream.writeTagInfo(tag, 0);
+					stream.writeLong(tag, ((Number) value).longValue());
+				}
+			} ;
+		case Integer:
+			return (stream, value) -> {
+				if (!(value instanceof BioExpression)) {
+					stream.writeTagInfo(tag, 0);
+					stream.writeInt(tag, ((Number) value).intValue());
+				}
+			} ;
+		case Byte:
+			return (stream, value) -> {
+				if (!(value instanceof BioExpression)) {
+					stream.writeTagInfo(tag, 0);
+					stream.writeByte(tag, ((Number) value).byteValue());
+				}
+			} ;
+		case Short:
+			return (stream, value) -> {
+				if (!(value instanceof BioExpression)) {
+					stream.writeTagInfo(tag, 0);
+					stream.writeShort(tag, ((Number) value).shortValue());
+				}
+			} ;
+		case Float:
+			return (stream, value) -> {
+				if (!(value instanceof BioExpression)) {
+					stream.writeTagInfo(tag, 0);
+					stream.writeFloat(tag, ((Number) value).floatValue());
+				}
+			} ;
+		case Double:
+			return (stream, value) -> {
+				if (!(value instanceof BioExpression)) {
+					stream.writeTagInfo(tag, 0);
+					stream.writeDouble(tag, (Double) value);
+				}
+			} ;
+		case BioEnum:
+			return (stream, value) -> {
+				if (!(value instanceof BioExpression)) {
+					stream.writeTagInfo(tag, 0);
+					stream.writeInt(tag, ((BioEnum) value).getOrdinal());
+				}
+			} ;
+		case String:
+			return (stream, value) -> {
+				if (!(value instanceof BioExpression)) {
+					stream.writeTagInfo(tag, 0);
+					stream.writeAsciiString(tag, (String) value);
+				}
+			} ;
+		case UtfString:
+			return (stream, value) -> {
+				if (!(value instanceof BioExpression)) {
+					stream.writeTagInfo(tag, 0);
+					stream.writeUtfString(tag, (String) value);
+				}
+			} ;
+		case Boolean:
+			return (stream, value) -> {
+				if (!(value instanceof BioExpression)) {
+					stream.writeTagInfo(tag, 0);
+					stream.writeBoolean(tag, (Boolean) value);
+				}
+			} ;
+		default:
+			return null ;
+		}
+	}
+
+	/**
+	 * Creates reader for scalar tags, others are read by generic path
+	 * @param tag
+	 * @return
+	 */
+	private static TagReader createReader(final BioTag tag) {
+		if (tag.isArray() || tag.isList()) {
+			return null ;
+		}
+		switch (tag.getType()) {
+		case Long:
+		case Time:
+			return stream -> stream.readLongValue() ;
+		case Integer:
+			return stream -> stream.readIntValue() ;
+		case Byte:
+			return stream -> stream.readByte() ;
+		case Short:
+			return stream -> stream.readShort() ;
+		case Float:
+			return stream -> stream.readFloat() ;
+		case Double:
+			return stream -> stream.readDouble() ;
+		case Boolean:
+			return stream -> stream.readBoolean() ;
+		case String:
+			return stream -> stream.readAsciiString() ;
+		case UtfString:
+			return stream -> stream.readUtfString() ;
+		case BioEnum:
+			final BioEnumObj enumObj = tag.getEnumObj() ;
+			if (enumObj == null) {
+				return null ;
+			}
+			return stream -> enumObj.getBioEnum(stream.readIntValue()) ;
+		default:
+			return null ;
+		}
+	}
+
+	/**
+	 * Compiled tag holding its writer and reader
+	 */
+	static class TagCodec {
+		private final BioTag tag ;
+		private final BioType type ;
+		private final TagWriter writer ;
+		private final TagReader reader ;
+
+		TagCodec(BioTag tag, TagWriter writer, TagReader reader) {
+			this.tag = tag ;
+			this.type = tag.getType() ;
+			this.writer = writer ;
+			this.reader = reader ;
+		}
+
+		BioTag getTag() {
+			return tag;
+		}
+
+		/**
+		 * Checks whether encoded value can be read by compiled reader, encoded type and container must match the tag
+		 * @param type
+		 * @param container
+		 * @return
+		 */
+		boolean isReadable(BioType type, int container) {
+			return reader != null && container == 0 && this.type == type ;
+		}
+
+		Object read(BiFastStream stream) throws Exception {
+			return reader.read(stream) ;
+		}
+	}
+
+	@FunctionalInterface
+	interface TagWriter {
+		void write(BoFastStream stream, Object value) ;
+	}
+
+	@FunctionalInterface
+	interface TagReader {
+		Object read(BiFastStream stream) throws Exception ;
+	}
+}
@@ -1,24 +1,37 @@
 package com.linkedlogics.bio.parser;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 import com.linkedlogics.bio.BioCompressor;
 import com.linkedlogics.bio.BioDictionary;
 import com.linkedlogics.bio.BioEncrypter;
 import com.linkedlogics.bio.BioEnum;
 import com.linkedlogics.bio.BioExpression;
+import com.linkedlogics.bio.BioList;
+import com.linkedlogics.bio.BioMap;
 import com.linkedlogics.bio.BioObject;
 import com.linkedlogics.bio.dictionary.BioEnumObj;
 import com.linkedlogics.bio.dictionary.BioObj;
 import com.linkedlogics.bio.dictionary.BioTag;
 import com.linkedlogics.bio.dictionary.BioType;
 import com.linkedlogics.bio.exception.ParserException;
+import com.linkedlogics.bio.stream.BiByteBufferStream;
 import com.linkedlogics.bio.stream.BiFastStream;
+import com.linkedlogics.bio.stream.BoByteBufferStream;
 import com.linkedlogics.bio.stream.BoFastStream;
 import com.linkedlogics.bio.utility.ByteUtility;
 import com.linkedlogics.bio.utility.XMLUtility;
@@ -50,14 +63,36 @@ public class BioObjectBinaryParser {
 	 * indicates whether binary bytes contain xml parseable bio object
 	 */
 	public static final int FLAG_XML = 0x10 ;
+	/**
+	 * indicates whether binary bytes contain compact format with varint tag codes, lengths and integral values
+	 */
+	public static final int FLAG_COMPACT = 0x20 ;
+	/**
+	 * indicates whether binary bytes contain a batch of bio objects of the same obj sharing a single header
+	 */
+	public static final int FLAG_BATCH = 0x40 ;
+	/**
+	 * indicates whether repeated strings in binary bytes are back references to their first occurrence
+	 */
+	public static final int FLAG_STRING_TABLE = 0x80 ;
+	/**
+	 * container value of tag info in deltas which marks either removed tag or delta of nested bio object
+	 */
+	private static final int DELTA_CONTAINER = 3 ;
 	
 	private boolean isCompressed ;
+	private boolean isCompact ;
+	private boolean isPrimitiveArrays ;
+	private boolean isLazy ;
 	private boolean isEncrypted ;
 	private boolean isLossless ;
 	private BioCompressor compressor = BioDictionary.getCompressor() ;
 	private BioEncrypter encrypter = BioDictionary.getEncrypter() ;
 	private BioObjectXmlParser xmlParser = new BioObjectXmlParser() ;
 	private boolean isValidated ;
+	private boolean isBatch ;
+	private boolean isStringTable ;
+	private boolean isCanonical ;
 	
 	/**
 	 * Indicates whether parser will use compression
@@ -88,6 +123,54 @@ public class BioObjectBinaryParser {
 		this.isEncrypted = isEncrypted;
 	}
 	
+	/**
+	 * Indicates whether parser will use compact format
+	 * @return
+	 */
+	public boolean isCompact() {
+		return isCompact;
+	}
+	/**
+	 * Changes compact format enabled flag, compact format packs tag type and container into one byte and writes 
+	 * tag codes, lengths and integral values as varints. Decoding detects format from header so it is not affected by this flag
+	 * @param isCompact
+	 */
+	public void setCompact(boolean isCompact) {
+		this.isCompact = isCompact;
+	}
+	
+	/**
+	 * Indicates whether Long, Time, Integer and Double arrays are decoded as long[], int[] and double[]
+	 * @return
+	 */
+	public boolean isPrimitiveArrays() {
+		return isPrimitiveArrays;
+	}
+	/**
+	 * Changes primitive arrays enabled flag, primitive arrays are bulk copied from bytes without boxing. 
+	 * Encoding accepts both boxed and primitive arrays regardless of this flag
+	 * @param isPrimitiveArrays
+	 */
+	public void setPrimitiveArrays(boolean isPrimitiveArrays) {
+		this.isPrimitiveArrays = isPrimitiveArrays;
+	}
+	
+	/**
+	 * Indicates whether parser decodes bio objects as {@link LazyBioObject}
+	 * @return
+	 */
+	public boolean isLazy() {
+		return isLazy;
+	}
+	/**
+	 * Changes lazy decoding enabled flag, lazy bio objects only index tag positions and decode values when they are accessed.
+	 * Since they refer to given bytes, bytes must not be reused while lazy objects are in use
+	 * @param isLazy
+	 */
+	public void setLazy(boolean isLazy) {
+		this.isLazy = isLazy;
+	}
+	
 		
 	/**
 	 * Indicates whether parser will validate unknown objects and throw an exception or just skip them
@@ -105,6 +188,59 @@ public class BioObjectBinaryParser {
 		this.isValidated = isValidated;
 	}
 	
+	/**
+	 * Indicates whether arrays and lists of the same bio obj are encoded as batches
+	 * @return
+	 */
+	public boolean isBatch() {
+		return isBatch;
+	}
+	
+	/**
+	 * Changes batch enabled flag, if all elements of an array or list belong to the same bio obj then dictionary, obj code 
+	 * and version are written once for whole batch instead of for each element. Other arrays and lists are encoded as usual
+	 * @param isBatch
+	 */
+	public void setBatch(boolean isBatch) {
+		this.isBatch = isBatch;
+	}
+	
+	/**
+	 * Indicates whether repeated string values are encoded as references to their first occurrence
+	 * @return
+	 */
+	public boolean isStringTable() {
+		return isStringTable;
+	}
+	
+	/**
+	 * Changes string table enabled flag, first occurrence of every String or UtfString value (including property keys and 
+	 * array elements) is written as usual and next occurrences in the same payload (in nested bio objects and other elements 
+	 * of arrays or lists too) are written as short back references. Decoded equal strings share the same instance
+	 * @param isStringTable
+	 */
+	public void setStringTable(boolean isStringTable) {
+		this.isStringTable = isStringTable;
+	}
+	
+	/**
+	 * Indicates whether encoding is canonical
+	 * @return
+	 */
+	public boolean isCanonical() {
+		return isCanonical;
+	}
+	
+	/**
+	 * Changes canonical encoding flag, tags are written in ascending order of tag codes and properties in order of keys 
+	 * instead of iteration order of bio object, so equal bio objects are always encoded to the same bytes and encoded bytes 
+	 * can be hashed for deduplication or used as cache keys. Decoding is not affected
+	 * @param isCanonical
+	 */
+	public void setCanonical(boolean isCanonical) {
+		this.isCanonical = isCanonical;
+	}
+	
 	/**
 	 * Encodes bio object or bio object array or list to binary bytes
 	 * @param object
@@ -149,184 +285,803 @@ public class BioObjectBinaryParser {
 			return null ;
 		}
 		
-		final BoFastStream stream = createOutputStream();
+		final BioCodecContext context = BioCodecContext.acquire() ;
+		try {
+			final BoFastStream stream = context.getOutputStream() ;
+			if (encode(object, stream, isCompressed, isLossless, isEncrypted) == 0) {
+				return null ;
+			}
+			return stream.toByteArray() ;
+		} finally {
+			context.release();
+		}
+	}
+	
+	/**
+	 * Returns xxHash64 of canonical encoding of bio object or bio object array or list. Bytes are hashed in place
+	 * without creating a byte array, equal bio objects have equal hashes
+	 * @param object
+	 * @return
+	 */
+	public long hash(Object object) {
+		final BioCodecContext context = BioCodecContext.acquire() ;
+		final BoFastStream stream = context.getOutputStream() ;
+		try {
+			stream.setCanonical(true);
+			encode(object, stream, false, false, false) ;
+			return stream.getHash() ;
+		} finally {
+			stream.setCanonical(false);
+			context.release();
+		}
+	}
+	
+	/**
+	 * Encodes bio object or bio object array or list into given stream. Stream can be reused for next encodings after {@link BoFastStream#reset()}
+	 * @param object
+	 * @param out
+	 * @return number of bytes written
+	 */
+	public int encode(Object object, BoFastStream out) {
+		return encode(object, out, isCompressed, isLossless, isEncrypted) ;
+	}
+	
+	/**
+	 * Encodes bio object or bio object array or list directly into given heap or direct buffer starting from its position.
+	 * Buffer position is moved after written bytes and its byte order is not changed, if there is not enough space an exception is thrown 
+	 * and position is not changed
+	 * @param object
+	 * @param out
+	 * @return number of bytes written
+	 */
+	public int encode(Object object, ByteBuffer out) {
+		BoByteBufferStream stream = new BoByteBufferStream(out) ;
+		int length = encode(object, stream) ;
+		// position of buffer is moved only if encoding succeeds
+		stream.flush();
+		return length ;
+	}
+	
+	/**
+	 * Encodes bio object into given stream with forced compression and encryption
+	 * @param object
+	 * @param out
+	 * @param isCompressed
+	 * @param isLossless
+	 * @param isEncrypted
+	 * @return number of bytes written
+	 */
+	public int encode(Object object, BoFastStream out, boolean isCompressed, boolean isLossless, boolean isEncrypted) {
+		if (object == null) {
+			// nothing to encode
+			return 0 ;
+		}
+		
+		final int start = out.getSize() ;
 		int flag = 0 ;
 		// set up necessary flags need while decoding
 		flag = flag | (isLossless ? FLAG_XML : 0) ;
+		flag = flag | (isCompact && !isLossless ? FLAG_COMPACT : 0) ;
+		flag = flag | (isStringTable && !isLossless ? FLAG_STRING_TABLE : 0) ;
 		
-		byte[] encoded = null ;
-		if (object instanceof BioObject[]) {
-			flag = flag | FLAG_ARRAY ;
-			encoded = encodeArray((BioObject[]) object, isLossless) ;
-		} else if (object instanceof List) {
-			flag = flag | FLAG_LIST ;
-			encoded = encodeList((List<BioObject>) object, isLossless) ;
-		} else if (object instanceof BioObject) {
-			encoded = encode((BioObject) object, isLossless) ;
-		} else {
-			throw new ParserException("only bio objects can be serializer or their arrays or collections " + object.getClass().getName() + " is not a bio object") ;
+		// flag is written first and updated at the end
+		out.write(flag);
+		final int bodyStart = out.getSize() ;
+		
+		boolean isWritten = true ;
+		final boolean isStreamCompact = out.isCompact() ;
+		final boolean isStreamCanonical = out.isCanonical() ;
+		final boolean isStreamLengthAsInt = out.isLengthAsInt() ;
+		out.setCompact((flag & FLAG_COMPACT) > 0);
+		out.setCanonical(isCanonical || isStreamCanonical);
+		if ((flag & FLAG_STRING_TABLE) > 0) {
+			out.enableStringTable();
+		}
+		try {
+			if (object instanceof BioObject[]) {
+				flag = flag | FLAG_ARRAY ;
+				flag = flag | encodeList(Arrays.asList((BioObject[]) object), out, isLossless) ;
+			} else if (object instanceof List) {
+				flag = flag | FLAG_LIST ;
+				flag = flag | encodeList((List<BioObject>) object, out, isLossless) ;
+			} else if (object instanceof BioObject) {
+				isWritten = encode((BioObject) object, out, isLossless) ;
+			} else {
+				out.reset(start);
+				throw new ParserException("only bio objects can be serializer or their arrays or collections " + object.getClass().getName() + " is not a bio object") ;
+			}
+		} finally {
+			out.setCompact(isStreamCompact);
+			out.setCanonical(isStreamCanonical);
+			out.setLengthAsInt(isStreamLengthAsInt);
+			out.disableStringTable();
 		}
 		
 		// if something happened and we got nothing encoded
-		if (encoded == null) {
-			return null ;
+		if (!isWritten) {
+			out.reset(start);
+			return 0 ;
+		}
+		
+		if ((isEncrypted && encrypter != null) || (isCompressed && compressor != null)) {
+			// encryption and compression need encoded bytes in a separate array
+			byte[] encoded = out.getBytes(bodyStart, out.getSize() - bodyStart) ;
+			out.reset(bodyStart);
+			
+			if (isEncrypted && encrypter != null) {
+				encoded = encrypter.encrypt(encoded) ;
+				flag = flag | (isEncrypted ? FLAG_ENCRYPTED : 0) ;
+			}
+			
+			if (isCompressed && compressor != null) {
+				byte[] compressed = compressor.compress(encoded) ;
+				// we check if compressed bytes are smaller than original only then we write compressed bytes
+				if (compressed.length + 4 /* original length in 4 bytes */ < encoded.length) {
+					flag = flag | (isCompressed ? FLAG_COMPRESSED : 0) ;
+					out.writeInt(encoded.length); // original length in 4 bytes
+					out.write(compressed);
+				} else {
+					out.write(encoded);
+				}
+			} else {
+				out.write(encoded);
+			}
+		}
+		
+		out.writeByte(start, (byte) flag);
+		return out.getSize() - start ;
+	}
+	
+	/**
+	 * Changes value of a single tag in encoded bytes without decoding and encoding whole bio object. If new value has the same 
+	 * encoded size (for example Integer, Long, Double, Boolean, Time or BioEnum tags in default format) then it is written over 
+	 * old value in place, otherwise new bytes are created by splicing new value and lengths of enclosing nested bio objects are updated. 
+	 * If tag is missing it is appended. Only uncompressed and unencrypted single bio objects without string table can be patched
+	 * @param bytes encoded bio object
+	 * @param path tag name or path to a tag of nested bio object such as order.status
+	 * @param value new value or null if tag must be removed
+	 * @return given bytes if they are changed in place otherwise new bytes
+	 */
+	public byte[] patch(byte[] bytes, String path, Object value) {
+		int flag = bytes[0] ;
+		if ((flag & (FLAG_COMPRESSED | FLAG_ENCRYPTED | FLAG_XML | FLAG_ARRAY | FLAG_LIST | FLAG_STRING_TABLE)) != 0) {
+			throw new ParserException("only uncompressed and unencrypted single bio objects without string table can be patched") ;
 		}
+		boolean isCompact = (flag & FLAG_COMPACT) > 0 ;
+		BiFastStream stream = new BiFastStream(bytes, 1, bytes.length - 1) ;
+		stream.setCompact(isCompact);
 		
-		if (isEncrypted && encrypter != null) {
-			encoded = encrypter.encrypt(encoded) ;
-			flag = flag | (isEncrypted ? FLAG_ENCRYPTED : 0) ;
+		String[] names = path.split("\\.") ;
+		// positions of lengths of enclosing nested bio objects
+		int[] lengthPositions = new int[names.length - 1] ;
+		BioObj obj = null ;
+		int entryStart = -1 ;
+		int entryEnd = -1 ;
+		try {
+			for (int i = 0; i < names.length; i++) {
+				int dictionary = stream.readByte() ;
+				int objCode = stream.readObjCode() ;
+				stream.readObjVersion() ;
+				if (BioDictionary.getDictionary(dictionary) == null || (obj = BioDictionary.getDictionary(dictionary).getObjByCode(objCode)) == null) {
+					throw new ParserException("bio obj with " + objCode + " is not found");
+				}
+				stream.setLengthAsInt(obj.isLarge());
+				boolean isLast = i == names.length - 1 ;
+				boolean isFound = false ;
+				while (stream.available() > 0) {
+					int start = stream.getPosition() ;
+					int tagInfo = stream.readTagInfo() ;
+					int tagCode = stream.readTagCode(tagInfo) ;
+					BioTag tag = obj.getTag(tagCode) ;
+					if (tag == null) {
+						tag = BioDictionary.getDictionary(dictionary).getSuperTag(tagCode) ;
+					}
+					if (tag != null && tag.getName().equals(names[i])) {
+						if (isLast) {
+							stream.skipValue(BiFastStream.getTagType(tagInfo), BiFastStream.getTagContainer(tagInfo));
+							entryStart = start ;
+							entryEnd = stream.getPosition() ;
+						} else {
+							if (BiFastStream.getTagType(tagInfo) != BioType.BioObject || BiFastStream.getTagContainer(tagInfo) != 0) {
+								throw new ParserException(names[i] + " is not a single nested bio object") ;
+							}
+							lengthPositions[i] = stream.getPosition() ;
+							stream = stream.readBioStream() ;
+						}
+						isFound = true ;
+						break ;
+					}
+					stream.skipValue(BiFastStream.getTagType(tagInfo), BiFastStream.getTagContainer(tagInfo));
+				}
+				if (!isFound) {
+					if (!isLast) {
+						throw new ParserException("nested bio object " + names[i] + " is not found") ;
+					}
+					// missing tag is appended at the end of bio object
+					entryStart = entryEnd = stream.getPosition() ;
+				}
+			}
+		} catch (ParserException e) {
+			throw e ;
+		} catch (Throwable e) {
+			throw new ParserException(e) ;
 		}
 		
-		if (isCompressed && compressor != null) {
-			byte[] compressed = compressor.compress(encoded) ;
-			// we check if compressed bytes are smaller than original only then we write compressed bytes
-			if (compressed.length + 4 /* original length in 4 bytes */ < encoded.length) {
-				flag = flag | (isCompressed ? FLAG_COMPRESSED : 0) ;
-				stream.write(flag);
-				stream.writeInt(encoded.length); // original length in 4 bytes
-				stream.write(compressed);
+		final BioCodecContext context = BioCodecContext.acquire() ;
+		final BoFastStream out = context.getOutputStream() ;
+		try {
+			out.setCompact(isCompact);
+			out.setLengthAsInt(obj.isLarge());
+			if (value != null) {
+				writeValue(obj, out, names[names.length - 1], value);
+				if (out.getSize() == 0) {
+					throw new ParserException("value " + value + " of " + path + " can not be encoded @ " + obj.getName()) ;
+				}
+			}
+			int delta = out.getSize() - (entryEnd - entryStart) ;
+			if (delta == 0) {
+				out.copyTo(bytes, entryStart);
+				return bytes ;
+			}
+			byte[] patched = new byte[bytes.length + delta] ;
+			System.arraycopy(bytes, 0, patched, 0, entryStart);
+			out.copyTo(patched, entryStart);
+			System.arraycopy(bytes, entryEnd, patched, entryStart + out.getSize(), bytes.length - entryEnd);
+			for (int i = 0; i < lengthPositions.length; i++) {
+				ByteUtility.intToBytes(patched, lengthPositions[i], ByteUtility.bytesToInt(patched, lengthPositions[i]) + delta) ;
+			}
+			return patched ;
+		} finally {
+			out.setCompact(false);
+			out.setLengthAsInt(false);
+			context.release();
+		}
+	}
+	
+	/**
+	 * Encodes difference between two states of the same bio object. Delta contains only added or changed tags, markers of removed tags
+	 * and deltas of nested bio objects which exist in both states. It can be applied to a copy of before state by {@link #applyDelta(BioObject, byte[])}
+	 * @param before
+	 * @param after
+	 * @return
+	 */
+	public byte[] encodeDelta(BioObject before, BioObject after) {
+		if (before.getBioDictionary() != after.getBioDictionary() || before.getBioCode() != after.getBioCode()) {
+			throw new ParserException("delta can only be encoded between states of the same bio object") ;
+		}
+		final BioObj obj = findObj(after) ;
+		if (obj == null) {
+			return null ;
+		}
+		final BioCodecContext context = BioCodecContext.acquire() ;
+		final BoFastStream stream = context.getOutputStream() ;
+		try {
+			stream.setCompact(isCompact);
+			stream.write(isCompact ? FLAG_COMPACT : 0);
+			writeDelta(obj, before, after, stream) ;
+			return stream.toByteArray() ;
+		} finally {
+			stream.setCompact(false);
+			context.release();
+		}
+	}
+	
+	/**
+	 * Applies delta created by {@link #encodeDelta(BioObject, BioObject)} to given bio object, it must be in the same state as before state of delta
+	 * @param base
+	 * @param delta
+	 * @return given base bio object
+	 */
+	public BioObject applyDelta(BioObject base, byte[] delta) {
+		BiFastStream stream = new BiFastStream(delta, 1, delta.length - 1) ;
+		stream.setCompact((delta[0] & FLAG_COMPACT) > 0);
+		try {
+			readDelta(base, stream) ;
+			return base ;
+		} catch (ParserException e) {
+			throw e ;
+		} catch (Throwable e) {
+			throw new ParserException(e) ;
+		}
+	}
+	
+	/**
+	 * Writes bio obj information and tag differences
+	 * @param obj
+	 * @param before
+	 * @param after
+	 * @param stream
+	 * @return number of tag differences written
+	 */
+	private int writeDelta(BioObj obj, BioObject before, BioObject after, BoFastStream stream) {
+		boolean isLengthAsInt = stream.isLengthAsInt() ;
+		stream.setLengthAsInt(obj.isLarge());
+		try {
+			stream.write(obj.getDictionary());
+			stream.writeObjCode(obj.getCode());
+			stream.writeObjVersion(obj.getVersion());
+		
+			int count = 0 ;
+			for (Entry<String, Object> e : after.entries()) {
+				Object value = before.get(e.getKey()) ;
+				if (value != null && value instanceof BioObject && e.getValue() instanceof BioObject) {
+					BioObject beforeValue = (BioObject) value ;
+					BioObject afterValue = (BioObject) e.getValue() ;
+					BioTag tag = findTag(obj, e.getKey()) ;
+					// properties and unknown bio objects are written as full values
+					BioObj nestedObj = null ;
+					if (tag != null && tag.getType() == BioType.BioObject && afterValue.getBioCode() != 0) {
+						BioDictionary nestedDictionary = BioDictionary.findDictionary(afterValue.getBioDictionary()) ;
+						nestedObj = nestedDictionary != null ? nestedDictionary.getObjByCode(afterValue.getBioCode()) : null ;
+					}
+					if (tag != null && tag.isEncodable() && nestedObj != null 
+							&& beforeValue.getBioDictionary() == afterValue.getBioDictionary() && beforeValue.getBioCode() == afterValue.getBioCode()) {
+						// nested bio objects are compared tag by tag
+						int position = stream.getSize() ;
+						stream.writeTagInfo(tag, BioType.BioObject, DELTA_CONTAINER);
+						stream.writeTag(tag);
+						int lengthPosition = stream.reserveIntLength() ;
+						if (writeDelta(nestedObj, beforeValue, afterValue, stream) > 0) {
+							stream.writeIntLength(lengthPosition, stream.getSize() - lengthPosition - 4);
+							count++ ;
+						} else {
+							stream.reset(position);
+						}
+						continue ;
+					}
+				}
+				if (value == null || !Arrays.deepEquals(new Object[] {value}, new Object[] {e.getValue()})) {
+					int size = stream.getSize() ;
+					writeValue(obj, stream, e.getKey(), e.getValue());
+					if (stream.getSize() > size) {
+						count++ ;
+					}
+				}
+			}
+			for (Entry<String, Object> e : before.entries()) {
+				if (!after.has(e.getKey())) {
+					BioTag tag = findTag(obj, e.getKey()) ;
+					if (tag != null && tag.isEncodable()) {
+						// removal marker has no value
+						stream.writeTagInfo(tag, BioType.Unknown, DELTA_CONTAINER);
+						stream.writeTag(tag);
+						count++ ;
+					}
+				}
+			}
+			return count ;
+		} finally {
+			stream.setLengthAsInt(isLengthAsInt);
+		}
+	}
+	
+	/**
+	 * Reads tag differences and applies them to bio object
+	 * @param base
+	 * @param stream
+	 */
+	private void readDelta(BioObject base, BiFastStream stream) throws IOException {
+		int dictionary = stream.readByte() ;
+		int objCode = stream.readObjCode() ;
+		stream.readObjVersion() ;
+		if (base.getBioDictionary() != dictionary || base.getBioCode() != objCode) {
+			throw new ParserException("delta of bio obj " + objCode + " can't be applied to " + base.getBioCode()) ;
+		}
+		BioObj obj = findObj(base) ;
+		if (obj == null) {
+			throw new ParserException("bio obj with " + objCode + " is not found");
+		}
+		stream.setLengthAsInt(obj.isLarge());
+		while (stream.available() > 0) {
+			int tagInfo = stream.readTagInfo() ;
+			BioType type = BiFastStream.getTagType(tagInfo) ;
+			int container = BiFastStream.getTagContainer(tagInfo) ;
+			int tagCode = stream.readTagCode(tagInfo) ;
+			BioTag tag = obj.getTag(tagCode) ;
+			if (tag == null) {
+				tag = BioDictionary.getDictionary(dictionary).getSuperTag(tagCode) ;
+			}
+			if (container == DELTA_CONTAINER) {
+				if (type == BioType.Unknown) {
+					if (tag != null) {
+						base.remove(tag.getName()) ;
+					}
+				} else {
+					BiFastStream nested = stream.readBioStream() ;
+					if (tag != null) {
+						BioObject nestedBase = base.getBioObject(tag.getName()) ;
+						if (nestedBase == null) {
+							throw new ParserException("nested bio object " + tag.getName() + " is missing in delta base") ;
+						}
+						readDelta(nestedBase, nested) ;
+					}
+				}
+			} else if (tag != null) {
+				Object value = readValue(obj, type, container == 1, container == 2, tag, stream) ;
+				if (value != null) {
+					base.put(tag.getName(), value) ;
+				}
 			} else {
-				stream.write(flag);
-				stream.write(encoded);
+				stream.skipValue(type, container);
 			}
+		}
+	}
+	
+	/**
+	 * Finds tag by name in bio obj or in super tags
+	 * @param obj
+	 * @param key
+	 * @return
+	 */
+	private BioTag findTag(BioObj obj, String key) {
+		BioTag tag = obj.getTag(key);
+		if (tag == null) {
+			tag = BioDictionary.getDictionary(obj.getDictionary()).getSuperTag(key);
+		}
+		return tag ;
+	}
+	
+	/**
+	 * Encodes bio object 
+	 * @param bio
+	 * @param stream
+	 * @param isLossless
+	 * @return
+	 */
+	private boolean encode(BioObject bio, BoFastStream stream, boolean isLossless) {
+		if (isLossless) {
+			stream.write(XMLUtility.toXml(bio).getBytes());
+			return true ;
 		} else {
-			stream.write(flag);
-			stream.write(encoded);
+			if (bio.getBioCode() == 0 && bio.getBioVersion() == 0) {
+				writeProperties(bio, stream);
+				return true ;
+			}
+			return writeBio(bio, stream);
+		}
+	}
+	
+	/**
+	 * Encodes list of bio objects, all elements are written into the same stream one after another
+	 * @param list
+	 * @param stream
+	 * @param isLossless
+	 * @return {@link #FLAG_BATCH} if list is encoded as a batch otherwise 0
+	 */
+	private int encodeList(List<BioObject> list, BoFastStream stream, boolean isLossless) {
+		if (isBatch && !isLossless) {
+			BioObj object = findBatchObj(list) ;
+			if (object != null) {
+				encodeBatch(object, list, stream) ;
+				return FLAG_BATCH ;
+			}
+		}
+		int size = 0 ;
+		for (int i = 0; i < list.size(); i++) {
+			if (isWritable(list.get(i), isLossless)) {
+				size++ ;
+			}
+		}
+		stream.writeShort(size);
+		for (int i = 0; i < list.size(); i++) {
+			if (isWritable(list.get(i), isLossless)) {
+				writeBioWithLength(list.get(i), stream, isLossless) ;
+			}
+		}
+		return 0 ;
+	}
+	
+	/**
+	 * Encodes list of bio objects of the same obj as a batch. Dictionary, obj code and version are written once followed by 
+	 * number of elements and then tags of each element prefixed with their length
+	 * @param object
+	 * @param list
+	 * @param stream
+	 */
+	private void encodeBatch(BioObj object, List<BioObject> list, BoFastStream stream) {
+		int size = 0 ;
+		for (int i = 0; i < list.size(); i++) {
+			if (list.get(i) != null) {
+				size++ ;
+			}
+		}
+		stream.write(object.getDictionary());
+		stream.writeObjCode(object.getCode());
+		stream.writeObjVersion(object.getVersion());
+		stream.writeInt(size);
+		for (int i = 0; i < list.size(); i++) {
+			if (list.get(i) != null) {
+				int position = stream.reserveIntLength() ;
+				writeTags(object, list.get(i), stream);
+				stream.writeIntLength(position, stream.getSize() - position - 4);
+			}
+		}
+	}
+	
+	/**
+	 * Finds bio obj shared by all elements of list
+	 * @param list
+	 * @return null if list is empty or elements belong to different objs or some of them are properties
+	 */
+	private BioObj findBatchObj(List<BioObject> list) {
+		BioObj object = null ;
+		for (int i = 0; i < list.size(); i++) {
+			BioObject bio = list.get(i) ;
+			if (bio == null) {
+				continue ;
+			}
+			if (bio.getBioCode() == 0 && bio.getBioVersion() == 0) {
+				return null ;
+			}
+			if (object == null) {
+				object = findObj(bio) ;
+				if (object == null) {
+					return null ;
+				}
+			} else if (bio.getBioCode() != object.getCode() || bio.getBioDictionary() != object.getDictionary()) {
+				return null ;
+			}
+		}
+		return object ;
+	}
+	
+	/**
+	 * Checks whether bio object can be encoded, so that array and list sizes can be written before elements
+	 * @param bio
+	 * @param isLossless
+	 * @return
+	 */
+	private boolean isWritable(BioObject bio, boolean isLossless) {
+		if (bio == null) {
+			return false ;
+		}
+		if (isLossless || (bio.getBioCode() == 0 && bio.getBioVersion() == 0)) {
+			return true ;
+		}
+		return findObj(bio) != null ;
+	}
+	
+	/**
+	 * Decodes bytes to bio object, array or list
+	 * @param bytes
+	 * @return
+	 */
+	public Object decode(byte[] bytes) {
+		if (bytes == null) {
+			return null ;
+		}
+		return decode(bytes, 0, bytes.length) ;
+	}
+	
+	/**
+	 * Decodes part of bytes to bio object, array or list. Uncompressed and unencrypted data is decoded directly from given bytes without copying
+	 * @param bytes
+	 * @param offset
+	 * @param length
+	 * @return
+	 */
+	public Object decode(byte[] bytes, int offset, int length) {
+		if (bytes == null) {
+			return null ;
 		}
-		
-		stream.close(); 
-		return stream.getBytes();
+		return decode(new BiFastStream(bytes, offset, length), null) ;
 	}
 	
 	/**
-	 * Encodes bio object 
-	 * @param bio
-	 * @param isLossless
+	 * Decodes bytes between position and limit of given heap or direct buffer to bio object, array or list. 
+	 * Buffer position is not changed
+	 * @param bytes
 	 * @return
 	 */
-	private byte[] encode(BioObject bio, boolean isLossless) {
-		if (isLossless) {
-			return XMLUtility.toXml(bio).getBytes() ;
-		} else {
-			if (bio.getBioCode() == 0 && bio.getBioVersion() == 0) {
-				return writeProperties(bio);
-			}
-			return writeBio(bio);
+	public Object decode(ByteBuffer bytes) {
+		if (bytes == null) {
+			return null ;
 		}
+		return decode(new BiByteBufferStream(bytes), null) ;
 	}
 	
 	/**
-	 * Encodes array of bio objects
-	 * @param array
+	 * Decodes only given tags of bio object, array or list and skips all other tags without decoding them. 
+	 * Tags of nested bio objects are given as paths such as order.customer.id, if only nested tag name is given 
+	 * (for example order) then nested bio object is decoded fully. Projection doesn't apply to xml encoded data and 
+	 * in lazy mode only fully requested nested bio objects are decoded lazily
+	 * @param bytes
+	 * @param tags
 	 * @return
 	 */
-	private byte[] encodeArray(BioObject[] array, boolean isLossless) {
-		final BoFastStream stream = createOutputStream();
-		stream.write(ByteUtility.shortToBytes((short) array.length));
-		for (int i = 0; i < array.length; i++) {
-			byte[] bytes = encode(array[i], isLossless);
-			if (bytes != null) {
-				stream.writeBioBytes(bytes);
-			}
+	public Object decode(byte[] bytes, Set<String> tags) {
+		if (bytes == null) {
+			return null ;
 		}
-		stream.close();
-		return stream.getBytes();
+		return decode(bytes, 0, bytes.length, tags) ;
 	}
 	
 	/**
-	 * Encodes list of bio objects
-	 * @param list
+	 * Decodes only given tags of part of bytes
+	 * @param bytes
+	 * @param offset
+	 * @param length
+	 * @param tags
 	 * @return
 	 */
-	private byte[] encodeList(List<BioObject> list, boolean isLossless) {
-		final BoFastStream stream = createOutputStream();
-		stream.write(ByteUtility.shortToBytes((short) list.size()));
-		for (int i = 0; i < list.size(); i++) {
-			byte[] bytes = encode(list.get(i), isLossless);
-			if (bytes != null) {
-				stream.writeBioBytes(bytes);
-			}
+	public Object decode(byte[] bytes, int offset, int length, Set<String> tags) {
+		if (bytes == null) {
+			return null ;
 		}
-		stream.close();
-		return stream.getBytes();
+		return decode(new BiFastStream(bytes, offset, length), createProjection(tags)) ;
 	}
 	
 	/**
-	 * Decodes bytes to bio object, array or list
+	 * Decodes only given tags of bytes between position and limit of given heap or direct buffer
 	 * @param bytes
+	 * @param tags
 	 * @return
 	 */
-	public Object decode(byte[] bytes) {
+	public Object decode(ByteBuffer bytes, Set<String> tags) {
 		if (bytes == null) {
 			return null ;
 		}
-		BiFastStream stream = createInputStream(bytes);
+		return decode(new BiByteBufferStream(bytes), createProjection(tags)) ;
+	}
+	
+	/**
+	 * Creates projection tree from tag paths, each tag name is mapped either to null which means whole value is decoded
+	 * or to projection of nested bio object
+	 * @param tags
+	 * @return
+	 */
+	private static Map<String, Object> createProjection(Set<String> tags) {
+		HashMap<String, Object> projection = new HashMap<String, Object>() ;
+		for (String path : tags) {
+			Map<String, Object> current = projection ;
+			String[] names = path.split("\\.") ;
+			for (int i = 0; i < names.length; i++) {
+				if (i == names.length - 1) {
+					// whole value is needed even if some nested tags were requested before
+					current.put(names[i], null) ;
+				} else if (current.containsKey(names[i]) && current.get(names[i]) == null) {
+					// whole value is already requested
+					break ;
+				} else {
+					Map<String, Object> next = (Map<String, Object>) current.get(names[i]) ;
+					if (next == null) {
+						next = new HashMap<String, Object>() ;
+						current.put(names[i], next) ;
+					}
+					current = next ;
+				}
+			}
+		}
+		return projection ;
+	}
+	
+	/**
+	 * Decodes stream to bio object, array or list
+	 * @param stream
+	 * @param projection tags to be decoded or null if all tags are decoded
+	 * @return
+	 */
+	private Object decode(BiFastStream stream, Map<String, Object> projection) {
 		int flag = stream.readByte() ;
-		boolean isCompressed = (int) (flag & FLAG_COMPRESSED) > 0 ;
 		boolean isArray = (int) (flag & FLAG_ARRAY) > 0 ;
 		boolean isList = (int) (flag & FLAG_LIST) > 0 ;
 		boolean isLossless = (int) (flag & FLAG_XML) > 0 ;
-		boolean isEncrypted = (int) (flag & FLAG_ENCRYPTED) > 0 ;
+		boolean isBatch = (int) (flag & FLAG_BATCH) > 0 ;
 		
 		try {
+			stream = unwrap(stream, flag) ;
+			
+			if (isBatch) {
+				List<BioObject> list = decodeBatch(stream, projection) ;
+				return isArray ? toArray(list) : list ;
+			} else if (isArray) {
+				return decodeArray(stream, isLossless, projection) ;
+			} else if (isList) {
+				return decodeList(stream, isLossless, projection) ;
+			} else {
+				return decode(stream, isLossless, projection) ;
+			}
+			
+		} catch (ParserException e) {
+			throw e ;
+		} catch (Throwable e) {
+			throw new ParserException(e) ;
+		}
+	}
+	
+	/**
+	 * Decompresses and decrypts stream content if needed and sets up stream format according to flag
+	 * @param stream
+	 * @param flag
+	 * @return stream positioned at encoded bio object, array or list
+	 * @throws IOException
+	 */
+	private BiFastStream unwrap(BiFastStream stream, int flag) throws IOException {
+		boolean isCompressed = (int) (flag & FLAG_COMPRESSED) > 0 ;
+		boolean isEncrypted = (int) (flag & FLAG_ENCRYPTED) > 0 ;
+		if (isCompressed || isEncrypted) {
 			int originalLength = 0 ;
 			if (isCompressed) {
 				originalLength = stream.readInt() ;
 			}
-			byte[] decoded = new byte[stream.available()] ;
-			stream.read(decoded);
+			byte[] decoded = stream.read(stream.available()) ;
 			if (isCompressed) {
 				decoded = compressor.decompress(decoded, originalLength) ;
 			}
 			if (isEncrypted) {
 				decoded = encrypter.decrypt(decoded) ;
 			}
-			
-			if (isArray) {
-				return decodeArray(decoded, isLossless) ;
-			} else if (isList) {
-				return decodeList(decoded, isLossless) ;
-			} else {
-				return decode(decoded, isLossless) ;
+			stream = createInputStream(decoded) ;
+		}
+		stream.setCompact((int) (flag & FLAG_COMPACT) > 0);
+		if ((int) (flag & FLAG_STRING_TABLE) != 0) {
+			stream.enableStringTable();
+		}
+		return stream ;
+	}
+	
+	/**
+	 * Decodes bytes to an iterator of bio objects. Elements of a batch are decoded one by one while iterating, 
+	 * other lists and arrays are decoded fully and single bio object is returned as the only element
+	 * @param bytes
+	 * @return
+	 */
+	public Iterator<BioObject> decodeIterator(byte[] bytes) {
+		if (bytes == null) {
+			return Collections.emptyIterator() ;
+		}
+		BiFastStream stream = createInputStream(bytes) ;
+		int flag = stream.readByte() ;
+		if ((int) (flag & FLAG_BATCH) > 0) {
+			try {
+				return new BatchIterator(unwrap(stream, flag), null) ;
+			} catch (ParserException e) {
+				throw e ;
+			} catch (Throwable e) {
+				throw new ParserException(e) ;
 			}
-			
-		} catch (ParserException e) {
-			throw e ;
-		} catch (Throwable e) {
-			throw new ParserException(e) ;
 		}
+		Object decoded = decode(bytes) ;
+		if (decoded instanceof List) {
+			return ((List<BioObject>) decoded).iterator() ;
+		} else if (decoded instanceof BioObject[]) {
+			return Arrays.asList((BioObject[]) decoded).iterator() ;
+		} else if (decoded instanceof BioObject) {
+			return Collections.singletonList((BioObject) decoded).iterator() ;
+		}
+		return Collections.emptyIterator() ;
 	}
 	
 	/**
 	 * Decodes bio object
-	 * @param decoded
+	 * @param stream
 	 * @param isLossless
+	 * @param projection
 	 * @return
 	 */
-	private BioObject decode(byte[] decoded, boolean isLossless) {
+	private BioObject decode(BiFastStream stream, boolean isLossless, Map<String, Object> projection) throws IOException {
 		if (isLossless) {
-			return xmlParser.parse(new ByteArrayInputStream(decoded)) ;
+			return xmlParser.parse(new ByteArrayInputStream(stream.read(stream.available()))) ;
 		} else {
-			return readBio(decoded) ;
+			return readBio(stream, isLazy, projection) ;
 		}
 	}
 	
 	/**
 	 * Decodes list of bio objects
-	 * @param bytes
+	 * @param stream
 	 * @param isLossless
+	 * @param projection
 	 * @return
 	 */
-	private List<BioObject> decodeList(byte[] bytes, boolean isLossless) {
-		BiFastStream stream = createInputStream(bytes);
+	private List<BioObject> decodeList(BiFastStream stream, boolean isLossless, Map<String, Object> projection) {
 		try {
 			int length = stream.readShort();
 			
 			ArrayList<BioObject> list = new ArrayList<BioObject>(length) ;
 			
-			for (int i = 0; i < list.size(); i++) {
-				byte[] bioBytes = stream.readBioBytes();
-				BioObject object = decode(bioBytes, isLossless) ;
+			for (int i = 0; i < length; i++) {
+				BioObject object = decode(stream.readBioStream(), isLossless, projection) ;
 				if (object != null) {
 					list.add(object) ;
 				}
@@ -340,13 +1095,36 @@ public class BioObjectBinaryParser {
 	
 	/**
 	 * Decodes array of bio objects
-	 * @param bytes
+	 * @param stream
 	 * @param isLossless
+	 * @param projection
 	 * @return
 	 */
-	private BioObject[] decodeArray(byte[] bytes, boolean isLossless) {
-		List<BioObject> list = decodeList(bytes, isLossless) ;
-		
+	private BioObject[] decodeArray(BiFastStream stream, boolean isLossless, Map<String, Object> projection) {
+		return toArray(decodeList(stream, isLossless, projection)) ;
+	}
+	
+	/**
+	 * Decodes batch of bio objects of the same obj
+	 * @param stream
+	 * @param projection
+	 * @return
+	 */
+	private List<BioObject> decodeBatch(BiFastStream stream, Map<String, Object> projection) {
+		BatchIterator iterator = new BatchIterator(stream, projection) ;
+		ArrayList<BioObject> list = new ArrayList<BioObject>(iterator.size) ;
+		while (iterator.hasNext()) {
+			list.add(iterator.next()) ;
+		}
+		return list ;
+	}
+	
+	/**
+	 * Converts list of bio objects to an array of their most specific common class
+	 * @param list
+	 * @return null if list is empty
+	 */
+	private BioObject[] toArray(List<BioObject> list) {
 		if (list.size() > 0) {
 			Class bioClass = list.get(0).getClass() ;
 			// we try to find a super class that will cover all bio objects
@@ -377,11 +1155,111 @@ public class BioObjectBinaryParser {
 	}
 
 	/**
-	 * Writes bio tags and obj information to bytes
+	 * Writes bio tags and obj information directly into given stream. Nested bio objects are written into the same stream
+	 * so that whole object graph is encoded in a single pass without intermediate byte arrays
+	 * @param bio
+	 * @param stream
+	 * @return false if bio object is not found in dictionary and nothing is written
+	 */
+	private boolean writeBio(BioObject bio, BoFastStream stream) {
+		final BioObj object = findObj(bio) ;
+		if (object == null) {
+			return false ;
+		}
+		stream.write(object.getDictionary());
+		stream.writeObjCode(object.getCode());
+		stream.writeObjVersion(object.getVersion());
+		writeTags(object, bio, stream);
+		return true ;
+	}
+	
+	/**
+	 * Writes tags of bio object without obj information
+	 * @param object
+	 * @param bio
+	 * @param stream
+	 */
+	private void writeTags(BioObj object, BioObject bio, BoFastStream stream) {
+		// nested objects can have different length encoding than their parent
+		boolean isLengthAsInt = stream.isLengthAsInt() ;
+		stream.setLengthAsInt(object.isLarge());
+		final BioObjCodec codec = object.getCodec() ;
+		try {
+			for (Entry<String, Object> e : stream.isCanonical() ? getCanonicalEntries(object, bio) : bio.entries()) {
+				// compiled codec is used if present, otherwise or for tags which are not compiled we use generic path
+				if (codec == null || !codec.write(stream, e.getKey(), e.getValue())) {
+					writeValue(object, stream, e.getKey(), e.getValue());
+				}
+			}
+		} finally {
+			stream.setLengthAsInt(isLengthAsInt);
+		}
+	}
+	
+	/**
+	 * Returns entries of bio object in ascending order of tag codes, if they are already in this order then they are returned as they are.
+	 * Entries without tags are not written so their order doesn't matter
+	 * @param object
+	 * @param bio
+	 * @return
+	 */
+	private Iterable<Entry<String, Object>> getCanonicalEntries(BioObj object, BioObject bio) {
+		int previous = Integer.MIN_VALUE ;
+		boolean isSorted = true ;
+		for (Entry<String, Object> e : bio.entries()) {
+			int code = getTagCode(object, e.getKey()) ;
+			if (code < previous) {
+				isSorted = false ;
+				break ;
+			}
+			previous = code ;
+		}
+		if (isSorted) {
+			return bio.entries() ;
+		}
+		ArrayList<Entry<String, Object>> entries = new ArrayList<Entry<String, Object>>(bio.entries()) ;
+		entries.sort((e1, e2) -> Integer.compare(getTagCode(object, e1.getKey()), getTagCode(object, e2.getKey())));
+		return entries ;
+	}
+	
+	private int getTagCode(BioObj object, String key) {
+		BioTag tag = findTag(object, key) ;
+		return tag != null ? tag.getCode() : Integer.MAX_VALUE ;
+	}
+	
+	/**
+	 * Writes bio object prefixed with its length. Length is reserved first and written after bio object is written,
+	 * if bio object can not be written then reserved bytes are discarded
+	 * @param bio
+	 * @param stream
+	 * @param isLossless
+	 * @return
+	 */
+	private boolean writeBioWithLength(BioObject bio, BoFastStream stream, boolean isLossless) {
+		int position = stream.reserveIntLength() ;
+		boolean isWritten = true ;
+		if (isLossless) {
+			stream.write(XMLUtility.toXml(bio).getBytes());
+		} else if (bio.getBioCode() == 0 && bio.getBioVersion() == 0) {
+			writeProperties(bio, stream);
+		} else {
+			isWritten = writeBio(bio, stream) ;
+		}
+		
+		if (isWritten) {
+			stream.writeIntLength(position, stream.getSize() - position - 4);
+		} else {
+			stream.reset(position);
+		}
+		return isWritten ;
+	}
+	
+	/**
+	 * Finds bio obj of bio object, if it is not found either returns null or throws an exception if parser is validated
 	 * @param bio
 	 * @return
 	 */
-	private byte[] writeBio(BioObject bio) {
+	private BioObj findObj(BioObject bio) {
 		if (BioDictionary.getDictionary(bio.getBioDictionary()) == null) {
 			if (!isValidated)
 				return null ;
@@ -395,36 +1273,26 @@ public class BioObjectBinaryParser {
 			else 
 				throw new ParserException("bio object " + bio.getBioCode() + "v" + bio.getBioVersion() + " is not found");
 		}
-		final BoFastStream stream = createOutputStream();
-		if (object.isLarge()) {
-			stream.setLengthAsInt(true);
-		}
-		stream.write(object.getDictionary());
-		stream.write(ByteUtility.shortToBytes((short) object.getCode()));
-		stream.write(ByteUtility.shortToBytes((short) object.getVersion()));
-		
-		for (Entry<String, Object> e : bio.entries()) {
-			writeValue(object, stream, e.getKey(), e.getValue());
-		}
-		
-		stream.close();
-
-		return stream.getBytes();
+		return object ;
 	}
 	
 	/**
-	 * Encodes bio object without checking bio dictionary assuming that it has no bio code
+	 * Encodes bio object without checking bio dictionary into given stream. Lengths are always short since properties
+	 * don't have a bio obj and are decoded from a nested stream with default length encoding, even inside a large parent
 	 * @param properties
-	 * @return
+	 * @param stream
 	 */
-	private byte[] writeProperties(BioObject properties) {
-		final BoFastStream stream = createOutputStream();
-		stream.write(properties.getBioDictionary());
-		stream.write(ByteUtility.shortToBytes((short) properties.getBioCode()));
-		stream.write(ByteUtility.shortToBytes((short) properties.getBioVersion()));
-		stream.writeProperties(null, properties);
-		stream.close();
-		return stream.getBytes();
+	private void writeProperties(BioObject properties, BoFastStream stream) {
+		boolean isLengthAsInt = stream.isLengthAsInt() ;
+		stream.setLengthAsInt(false);
+		try {
+			stream.write(properties.getBioDictionary());
+			stream.writeObjCode(properties.getBioCode());
+			stream.writeObjVersion(properties.getBioVersion());
+			stream.writeProperties(null, properties);
+		} finally {
+			stream.setLengthAsInt(isLengthAsInt);
+		}
 	}
 	
 	/**
@@ -434,7 +1302,7 @@ public class BioObjectBinaryParser {
 	 * @param key
 	 * @param value
 	 */
-	private void writeValue(final BioObj object, final BoFastStream stream, String key, Object value) {
+	void writeValue(final BioObj object, final BoFastStream stream, String key, Object value) {
 		try {
 			// We find tag information
 			BioTag tag = object.getTag(key);
@@ -448,19 +1316,19 @@ public class BioObjectBinaryParser {
 				}
 				// encode like array (including array length) if tag is 
 				if (tag.isArray()) {
-					if (!(value instanceof Object[])) {
+					if (!value.getClass().isArray()) {
 						throw new ParserException(" for tag " + key + " value " + value + " is not array @ " + object.getBioClass().getName()) ;
 					}
-					// writing tag info
-					stream.write(tag.getType().value());
-					// writing array indicator
-					stream.write((byte) 1);
+					// writing tag info with array indicator
+					stream.writeTagInfo(tag, 1);
 					switch (tag.getType()) {
 					case Long:
-						stream.writeLongArray(tag, (Long[]) value);
-						break;
 					case Time:
-						stream.writeLongArray(tag, (Long[]) value);
+						if (value instanceof long[]) {
+							stream.writeLongArray(tag, (long[]) value);
+						} else {
+							stream.writeLongArray(tag, (Long[]) value);
+						}
 						break;
 					case BioEnum:
 						BioEnum[] bioEnumArray = (BioEnum[]) value;
@@ -470,7 +1338,11 @@ public class BioObjectBinaryParser {
 						stream.writeIntArray(tag, intArray);
 						break;
 					case Integer:
-						stream.writeIntArray(tag, (Integer[]) value);
+						if (value instanceof int[]) {
+							stream.writeIntArray(tag, (int[]) value);
+						} else {
+							stream.writeIntArray(tag, (Integer[]) value);
+						}
 						break;
 					case Byte:
 						stream.writeByteArray(tag, (Byte[]) value);
@@ -485,7 +1357,11 @@ public class BioObjectBinaryParser {
 						stream.writeBooleanArray(tag, (Boolean[]) value);
 						break;
 					case Double:
-						stream.writeDoubleArray(tag, (Double[]) value);
+						if (value instanceof double[]) {
+							stream.writeDoubleArray(tag, (double[]) value);
+						} else {
+							stream.writeDoubleArray(tag, (Double[]) value);
+						}
 						break;
 					case String:
 						stream.writeAsciiStringArray(tag, (String[]) value);
@@ -497,15 +1373,7 @@ public class BioObjectBinaryParser {
 						stream.writeObjectArray(tag, (Object[]) value);
 						break;
 					case BioObject:
-						BioObject[] bioArray = (BioObject[]) value;
-						stream.writeTag(tag);
-						stream.writeLength(bioArray.length);
-						for (int i = 0; i < bioArray.length; i++) {
-							byte[] bioBytes = writeBio(bioArray[i]);
-							if (bioBytes != null) {
-								stream.writeBioBytes(bioBytes);
-							}
-						}
+						writeBioArray(tag, stream, Arrays.asList((BioObject[]) value));
 						break;
 					default:
 						throw new ParserException(tag.getType() + " arrays are not supported");
@@ -514,21 +1382,13 @@ public class BioObjectBinaryParser {
 					if (!(value instanceof List)) {
 						throw new ParserException(" for tag " + key + " value " + value + " is not list @ " + object.getBioClass().getName()) ;
 					}
-					// writing tag info
-					stream.write(tag.getType().value());
-					// writing list indicator
-					stream.write((byte) 2);
+					// writing tag info with list indicator
+					stream.writeTagInfo(tag, 2);
 					List<Object> list = (List) value;
 					switch (tag.getType()) {
 					case Long:
-						Long[] longArray = new Long[list.size()];
-						list.toArray(longArray);
-						stream.writeLongArray(tag, longArray);
-						break;
 					case Time:
-						longArray = new Long[list.size()];
-						list.toArray(longArray);
-						stream.writeLongArray(tag, longArray);
+						stream.writeLongList(tag, (List) list);
 						break;
 					case BioEnum:
 						List<BioEnum> bioEnumArray = (List<BioEnum>) value;
@@ -538,9 +1398,7 @@ public class BioObjectBinaryParser {
 						stream.writeIntArray(tag, intCodeArray);
 						break;
 					case Integer:
-						Integer[] intArray = new Integer[list.size()];
-						list.toArray(intArray);
-						stream.writeIntArray(tag, intArray);
+						stream.writeIntList(tag, (List) list);
 						break;
 					case Byte:
 						Byte[] byteArray = new Byte[list.size()];
@@ -563,9 +1421,7 @@ public class BioObjectBinaryParser {
 						stream.writeBooleanArray(tag, booleanArray);
 						break;
 					case Double:
-						Double[] doubleArray = new Double[list.size()];
-						list.toArray(doubleArray);
-						stream.writeDoubleArray(tag, doubleArray);
+						stream.writeDoubleList(tag, (List) list);
 						break;
 					case String:
 						String[] stringArray = new String[list.size()];
@@ -583,16 +1439,7 @@ public class BioObjectBinaryParser {
 						stream.writeObjectArray(tag, objectArray);
 						break;
 					case BioObject:
-						BioObject[] bioArray = new BioObject[list.size()];
-						list.toArray(bioArray);
-						stream.writeTag(tag);
-						stream.writeLength(bioArray.length);
-						for (int i = 0; i < bioArray.length; i++) {
-							byte[] bioBytes = writeBio(bioArray[i]);
-							if (bioBytes != null) {
-								stream.writeBioBytes(bioBytes);
-							}
-						}
+						writeBioArray(tag, stream, (List) list);
 						break;
 					default:
 						throw new ParserException(tag.getType() + " lists are not supported");
@@ -606,10 +1453,10 @@ public class BioObjectBinaryParser {
 					if (value instanceof BioObject && BioDictionary.getDictionary(((BioObject) value).getBioDictionary()) == null) {
 						return ;
 					}
-					// write tag info
-					stream.write(tag.getType().value());
-					// write single object indicator
-					stream.write((byte) 0);
+					// position is kept in case if nested bio object is not written
+					int position = stream.getSize() ;
+					// write tag info with single object indicator
+					stream.writeTagInfo(tag, 0);
 					switch (tag.getType()) {
 					case Long:
 						stream.writeLong(tag, ((Number) value).longValue());
@@ -652,11 +1499,18 @@ public class BioObjectBinaryParser {
 						stream.writeProperties(object, tag, (BioObject) value);
 						break;
 					case BioObject:
-						byte[] bioBytes = writeBio((BioObject) value);
-						if (bioBytes != null) {
-							stream.writeBioBytes(tag, bioBytes);
+						stream.writeTag(tag);
+						if (!writeBioWithLength((BioObject) value, stream, false)) {
+							// nothing is written for nested object, so tag info is discarded as well
+							stream.reset(position);
 						}
 						break;
+					case BioMap:
+						writeBioArray(tag, stream, ((Map<Object, BioObject>) value).values());
+						break;
+					case BioList:
+						writeBioArray(tag, stream, (List<BioObject>) value);
+						break;
 					}
 				}
 			}
@@ -666,12 +1520,35 @@ public class BioObjectBinaryParser {
 	}
 	
 	/**
-	 * Decodes bio object
-	 * @param bytes
+	 * Encodes array or list of nested bio objects directly into stream
+	 * @param tag
+	 * @param stream
+	 * @param list
+	 */
+	private void writeBioArray(BioTag tag, BoFastStream stream, Collection<BioObject> list) {
+		int size = 0 ;
+		for (BioObject bio : list) {
+			if (isWritable(bio, false)) {
+				size++ ;
+			}
+		}
+		stream.writeTag(tag);
+		stream.writeLength(size);
+		for (BioObject bio : list) {
+			if (isWritable(bio, false)) {
+				writeBioWithLength(bio, stream, false) ;
+			}
+		}
+	}
+	
+	/**
+	 * Decodes bio object from stream, nested bio objects are read from the same buffer using offset and length
+	 * @param stream
+	 * @param isLazy if true only tag positions are indexed and values are decoded on access
+	 * @param projection tags to be decoded or null if all tags are decoded
 	 * @return
 	 */
-	private BioObject readBio(byte[] bytes) {
-		BiFastStream stream = createInputStream(bytes);
+	private BioObject readBio(BiFastStream stream, boolean isLazy, Map<String, Object> projection) {
 		try {
 			int dictionary = stream.readByte() ;
 			int objCode = stream.readObjCode();
@@ -692,9 +1569,35 @@ public class BioObjectBinaryParser {
 				else 
 					throw new ParserException("bio obj with " + objCode + " is not found");
 			}
+			return readBio(stream, obj, objVersion, isLazy, projection) ;
+		} catch (ParserException e) {
+			throw e ;
+		} catch (Throwable e) {
+			throw new ParserException(e);
+		} finally {
+			stream.close();
+		}
+	}
+	
+	/**
+	 * Decodes tags of bio object whose obj and version are already known, either from its own header or from the header of a batch
+	 * @param stream
+	 * @param obj
+	 * @param objVersion
+	 * @param isLazy
+	 * @param projection
+	 * @return
+	 */
+	private BioObject readBio(BiFastStream stream, BioObj obj, int objVersion, boolean isLazy, Map<String, Object> projection) {
+		try {
+			int objCode = obj.getCode() ;
 			if (obj.isLarge()) {
 				stream.setLengthAsInt(true);
 			}
+			if (isLazy && projection == null) {
+				// values are decoded when they are accessed
+				return new LazyBioObject(obj, objVersion, new LazyBioMap(this, obj, stream, obj.getCodec() != null ? obj.getCodec().getPlan(objVersion) : null)) ;
+			}
 			// we create an instance of bio object
 			BioObject bio = null;
 			if (obj.getBioClass() != null) {
@@ -709,29 +1612,58 @@ public class BioObjectBinaryParser {
 				bio = new BioObject(objCode, null, objVersion);
 			}
 			// we parse tags one by one
+			final BioObjCodec codec = obj.getCodec() ;
+			// payloads of older versions are converted to current tag definitions while they are decoded
+			final BioReadPlan plan = codec != null ? codec.getPlan(objVersion) : null ;
 			BioTag tag = null;
 			while (stream.available() > 0) {
-				byte tagInfo = stream.readByte();
-				BioType tagType = BioType.getType(tagInfo);
-				byte typeInfo = stream.readByte() ;
-				boolean isArray = typeInfo == 1 ;
-				boolean isList = typeInfo == 2 ;
-				int tagCode = stream.readTagCode();
-				tag = obj.getTag(tagCode);
-				// if couldn't find tag, may be it is a super tag ???
-				if (tag == null) {
-					tag = BioDictionary.getDictionary(dictionary).getSuperTag(tagCode);
+				int tagInfo = stream.readTagInfo();
+				BioType tagType = BiFastStream.getTagType(tagInfo);
+				int container = BiFastStream.getTagContainer(tagInfo) ;
+				boolean isArray = container == 1 ;
+				boolean isList = container == 2 ;
+				int tagCode = stream.readTagCode(tagInfo);
+				if (plan != null) {
+					BioReadPlan.TagPlan tagPlan = plan.getTag(tagCode) ;
+					if (tagPlan != null && (projection == null || projection.containsKey(tagPlan.getTag().getName()))) {
+						tag = tagPlan.getTag() ;
+						Object value = tagPlan.convert(readValue(obj, tagType, isArray, isList, tag, stream, projection != null ? (Map<String, Object>) projection.get(tag.getName()) : null)) ;
+						if (value != null) {
+							bio.put(tag.getName(), value);
+						}
+					} else {
+						stream.skipValue(tagType, container);
+					}
+					continue ;
+				}
+				BioObjCodec.TagCodec tagCodec = codec != null ? codec.getTag(tagCode) : null ;
+				if (tagCodec != null) {
+					tag = tagCodec.getTag() ;
+					// compiled reader is used only if encoded value matches the tag definition
+					if (projection == null && tagCodec.isReadable(tagType, container)) {
+						Object value = tagCodec.read(stream) ;
+						if (value != null) {
+							bio.put(tag.getName(), value);
+						}
+						continue ;
+					}
+				} else {
+					tag = obj.getTag(tagCode);
+					// if couldn't find tag, may be it is a super tag ???
+					if (tag == null) {
+						tag = BioDictionary.getDictionary(obj.getDictionary()).getSuperTag(tagCode);
+					}
 				}
 
-				if (tag != null) {
-					Object value = readValue(obj, tagType, isArray, isList, tag, stream);
+				if (tag != null && (projection == null || projection.containsKey(tag.getName()))) {
+					Object value = readValue(obj, tagType, isArray, isList, tag, stream, projection != null ? (Map<String, Object>) projection.get(tag.getName()) : null);
 					if (value != null) {
 						bio.put(tag.getName(), value);
 					}
 				} else {
-					// there is something encoded but we don't have it in dictionary
-					// so we just ignore it
-					readValue(obj, tagType, isArray, isList, null, stream);
+					// there is something encoded but we don't have it in dictionary 
+					// or it is not in projection so we just skip it
+					stream.skipValue(tagType, container);
 				}
 			}
 			return bio;
@@ -752,13 +1684,28 @@ public class BioObjectBinaryParser {
 	 * @param stream
 	 * @return
 	 */
-	private Object readValue(BioObj obj, BioType type, boolean isArray, boolean isList, BioTag tag, BiFastStream stream) {
+	Object readValue(BioObj obj, BioType type, boolean isArray, boolean isList, BioTag tag, BiFastStream stream) {
+		return readValue(obj, type, isArray, isList, tag, stream, null) ;
+	}
+	
+	/**
+	 * Decodes tag value, nested bio objects are decoded using given projection
+	 * @param obj
+	 * @param type
+	 * @param isArray
+	 * @param isList
+	 * @param tag
+	 * @param stream
+	 * @param projection tags of nested bio objects to be decoded or null if all tags are decoded
+	 * @return
+	 */
+	private Object readValue(BioObj obj, BioType type, boolean isArray, boolean isList, BioTag tag, BiFastStream stream, Map<String, Object> projection) {
 		if (isArray) {
 			switch (type) {
 			case Long:
-				return stream.readLongArray();
+				return isPrimitiveArrays ? stream.readPrimitiveLongArray() : stream.readLongArray();
 			case Integer:
-				return stream.readIntArray();
+				return isPrimitiveArrays ? stream.readPrimitiveIntArray() : stream.readIntArray();
 			case BioEnum:
 				BioEnumObj bioEnumObj = tag.getEnumObj();
 				Integer intArray[] = stream.readIntArray();
@@ -771,7 +1718,7 @@ public class BioObjectBinaryParser {
 				}
 				return null;
 			case Double:
-				return stream.readDoubleArray();
+				return isPrimitiveArrays ? stream.readPrimitiveDoubleArray() : stream.readDoubleArray();
 			case Byte:
 				return stream.readByteArray();
 			case Short:
@@ -787,18 +1734,10 @@ public class BioObjectBinaryParser {
 			case JavaObject:
 				return stream.readObjectArray();
 			case Time:
-				return stream.readLongArray();
+				return isPrimitiveArrays ? stream.readPrimitiveLongArray() : stream.readLongArray();
 			case BioObject:
 			case Properties:
-				int size = stream.readLength();
-				
-				ArrayList<BioObject> list = new ArrayList<BioObject>() ;
-				for (int i = 0; i < size; i++) {
-					BioObject bio = readBio(stream.readBioBytes());
-					if (bio != null) {
-						list.add(bio) ;
-					}
-				}
+				ArrayList<BioObject> list = readBioArray(stream, projection) ;
 				
 				BioObject[] bioArray = null;
 				if (tag != null && tag.getObj() != null && tag.getObj().getBioClass() != null) {
@@ -813,9 +1752,9 @@ public class BioObjectBinaryParser {
 		} else if (isList) {
 			switch (type) {
 			case Long:
-				return new ArrayList(Arrays.asList(stream.readLongArray()));
+				return stream.readLongList();
 			case Integer:
-				return new ArrayList(Arrays.asList(stream.readIntArray()));
+				return stream.readIntList();
 			case BioEnum:
 				BioEnumObj bioEnumObj = tag.getEnumObj();
 				Integer intArray[] = stream.readIntArray();
@@ -828,7 +1767,7 @@ public class BioObjectBinaryParser {
 				}
 				return null;
 			case Double:
-				return new ArrayList(Arrays.asList(stream.readDoubleArray()));
+				return stream.readDoubleList();
 			case Byte:
 				return new ArrayList(Arrays.asList(stream.readByteArray()));
 			case Short:
@@ -844,32 +1783,24 @@ public class BioObjectBinaryParser {
 			case JavaObject:
 				return new ArrayList(Arrays.asList(stream.readObjectArray()));
 			case Time:
-				return new ArrayList(Arrays.asList(stream.readLongArray()));
+				return stream.readLongList();
 			case BioObject:
 			case Properties:
-				int size = stream.readLength();
-				ArrayList<BioObject> list = new ArrayList<BioObject>() ;
-				for (int i = 0; i < size; i++) {
-					BioObject bio = readBio(stream.readBioBytes());
-					if (bio != null) {
-						list.add(bio) ;
-					}
-				}
-				return list ;
+				return readBioArray(stream, projection) ;
 			}
 		} else {
 			switch (type) {
 			case Long:
-				return stream.readLong();
+				return stream.readLongValue();
 			case Integer:
-				return stream.readInt();
+				return stream.readIntValue();
 			case BioEnum:
 				BioEnumObj bioEnumObj = tag.getEnumObj();
-				return bioEnumObj.getBioEnum(stream.readInt());
+				return bioEnumObj.getBioEnum(stream.readIntValue());
 			case Double:
 				return stream.readDouble();
 			case Time:
-				return stream.readLong();
+				return stream.readLongValue();
 			case Boolean:
 				return stream.readBoolean();
 			case Byte:
@@ -887,26 +1818,91 @@ public class BioObjectBinaryParser {
 			case Properties:
 				return stream.readProperties(obj);
 			case BioObject:
-				return readBio(stream.readBioBytes());
+				return readBio(stream.readBioStream(), isLazy, projection);
+			case BioMap:
+				ArrayList<BioObject> values = readBioArray(stream, projection) ;
+				// index is built on first access by key, if tag is not a map anymore values are returned as list
+				return tag.getType() == BioType.BioMap && tag.getUseKey() != null ? new BioMap(tag.getUseKey(), values) : values ;
+			case BioList:
+				return new BioList(tag.getType() == BioType.BioList ? tag.getSortKey() : null, readBioArray(stream, projection)) ;
 			}
 		}
 		return null;
 	}
 	
 	/**
-	 * Creates stream for decoding
-	 * @param data
+	 * Decodes nested bio objects of an array, list, map etc.
+	 * @param stream
+	 * @param projection
 	 * @return
 	 */
-	private BiFastStream createInputStream(byte[] data) {
-		return new BiFastStream(data);
+	private ArrayList<BioObject> readBioArray(BiFastStream stream, Map<String, Object> projection) {
+		int size = stream.readLength();
+		ArrayList<BioObject> list = new ArrayList<BioObject>(size) ;
+		for (int i = 0; i < size; i++) {
+			// elements of typed arrays and lists are decoded eagerly
+			BioObject bio = readBio(stream.readBioStream(), false, projection);
+			if (bio != null) {
+				list.add(bio) ;
+			}
+		}
+		return list ;
 	}
+	
+	/**
+	 * Iterates over elements of a batch decoding them one by one, all elements share obj and version from batch header
+	 */
+	private class BatchIterator implements Iterator<BioObject> {
+		private final BiFastStream stream ;
+		private final Map<String, Object> projection ;
+		private final BioObj obj ;
+		private final int objVersion ;
+		private final int size ;
+		private int index ;
+		
+		BatchIterator(BiFastStream stream, Map<String, Object> projection) {
+			this.stream = stream ;
+			this.projection = projection ;
+			int dictionary = stream.readByte() ;
+			int objCode = stream.readObjCode() ;
+			this.objVersion = stream.readObjVersion() ;
+			this.size = stream.readInt() ;
+			final BioDictionary bioDictionary = BioDictionary.findDictionary(dictionary) ;
+			if (bioDictionary == null) {
+				if (isValidated) {
+					throw new ParserException("bio dictionary " + dictionary + " is not found");
+				}
+				this.obj = null ;
+				return ;
+			}
+			this.obj = bioDictionary.getObjByCode(objCode) ;
+			if (obj == null && isValidated) {
+				throw new ParserException("bio obj with " + objCode + " is not found");
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			// if obj is not found whole batch is skipped
+			return obj != null && index < size ;
+		}
 
+		@Override
+		public BioObject next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException() ;
+			}
+			index++ ;
+			return readBio(stream.readBioStream(), obj, objVersion, isLazy, projection) ;
+		}
+	}
+	
 	/**
-	 * Creates stream for encoding
+	 * Creates stream for decoding
+	 * @param data
 	 * @return
 	 */
-	private BoFastStream createOutputStream() {
-		return new BoFastStream();
+	private BiFastStream createInputStream(byte[] data) {
+		return new BiFastStream(data);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,264 @@
+package com.linkedlogics.bio.parser;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map.Entry;
+
+import com.linkedlogics.bio.BioDictionary;
+import com.linkedlogics.bio.BioEnum;
+import com.linkedlogics.bio.BioExpression;
+import com.linkedlogics.bio.BioObject;
+import com.linkedlogics.bio.dictionary.BioObj;
+import com.linkedlogics.bio.dictionary.BioTag;
+import com.linkedlogics.bio.exception.ParserException;
+import com.linkedlogics.bio.stream.BoFastStream;
+
+/**
+ * Encodes batches of bio objects of the same obj column by column. Each tag is stored as a contiguous column with a presence bitmap
+ * followed by values of rows having the tag: numeric tags as primitive arrays, strings as a dictionary of distinct values and indexes,
+ * all other tags (arrays, lists, nested objects etc.) as binary encoded tag values. Columns can be scanned one by one using
+ * {@link BioColumnarBatch} without materializing bio objects
+ * @author rdavudov
+ *
+ */
+public class BioObjectColumnarParser {
+	/**
+	 * Format version written as first byte
+	 */
+	static final int FORMAT_VERSION = 2 ;
+	/**
+	 * Column kinds
+	 */
+	static final int KIND_LONG = 0 ;
+	static final int KIND_INT = 1 ;
+	static final int KIND_DOUBLE = 2 ;
+	static final int KIND_STRING = 3 ;
+	static final int KIND_BINARY = 4 ;
+
+	private BioObjectBinaryParser binaryParser = new BioObjectBinaryParser() ;
+
+	/**
+	 * Encodes list of bio objects column by column, all bio objects must belong to the same obj
+	 * @param list
+	 * @return
+	 */
+	public byte[] encode(List<? extends BioObject> list) {
+		if (list == null || list.size() == 0) {
+			return null ;
+		}
+		BioObject first = list.get(0) ;
+		BioObj obj = BioDictionary.getDictionary(first.getBioDictionary()).getObjByCode(first.getBioCode()) ;
+		if (obj == null) {
+			throw new ParserException("bio object " + first.getBioCode() + "v" + first.getBioVersion() + " is not found");
+		}
+		// columns are kept in order of their first appearance
+		LinkedHashMap<String, ColumnWriter> columns = new LinkedHashMap<String, ColumnWriter>() ;
+		for (int i = 0; i < list.size(); i++) {
+			BioObject bio = list.get(i) ;
+			if (bio.getBioCode() != obj.getCode() || bio.getBioDictionary() != obj.getDictionary()) {
+				throw new ParserException("columnar batch must contain only " + obj.getName() + " but found " + bio.getBioName()) ;
+			}
+			for (Entry<String, Object> e : bio.entries()) {
+				if (e.getValue() instanceof BioExpression) {
+					continue ;
+				}
+				ColumnWriter column = columns.get(e.getKey()) ;
+				if (column == null) {
+					BioTag tag = obj.getTag(e.getKey()) ;
+					if (tag == null || !tag.isEncodable()) {
+						continue ;
+					}
+					column = new ColumnWriter(tag, list.size()) ;
+					columns.put(e.getKey(), column) ;
+				}
+				column.add(i, e.getValue(), obj);
+			}
+		}
+
+		BoFastStream data = new BoFastStream() ;
+		data.setLengthAsInt(true);
+		BoFastStream stream = new BoFastStream() ;
+		stream.setLengthAsInt(true);
+		stream.write(FORMAT_VERSION);
+		stream.write(obj.getDictionary());
+		stream.writeInt(obj.getCode());
+		stream.writeInt(obj.getVersion());
+		stream.writeInt(list.size());
+		stream.writeInt(columns.size());
+		for (ColumnWriter column : columns.values()) {
+			int offset = data.getSize() ;
+			column.write(data);
+			stream.writeInt(column.tag.getCode());
+			stream.write(column.kind);
+			stream.writeInt(offset);
+			stream.writeInt(data.getSize() - offset);
+		}
+		stream.write(data.getBytes(0, data.getSize()));
+		return stream.toByteArray() ;
+	}
+
+	/**
+	 * Decodes all bio objects of columnar batch
+	 * @param bytes
+	 * @return
+	 */
+	public List<BioObject> decode(byte[] bytes) {
+		return scan(bytes).toList() ;
+	}
+
+	/**
+	 * Returns columnar batch which reads columns on demand
+	 * @param bytes
+	 * @return
+	 */
+	public BioColumnarBatch scan(byte[] bytes) {
+		return new BioColumnarBatch(bytes, binaryParser) ;
+	}
+
+	/**
+	 * Returns kind of column for tag
+	 * @param tag
+	 * @return
+	 */
+	static int getKind(BioTag tag) {
+		if (tag.isArray() || tag.isList()) {
+			return KIND_BINARY ;
+		}
+		switch (tag.getType()) {
+		case Long:
+		case Time:
+			return KIND_LONG ;
+		case Integer:
+		case Short:
+		case Byte:
+		case Boolean:
+		case BioEnum:
+			return KIND_INT ;
+		case Double:
+		case Float:
+			return KIND_DOUBLE ;
+		case String:
+		case UtfString:
+			return KIND_STRING ;
+		default:
+			return KIND_BINARY ;
+		}
+	}
+
+	/**
+	 * Collects values of a single tag and writes them as a column
+	 */
+	private class ColumnWriter {
+		private final BioTag tag ;
+		private final int kind ;
+		private final byte[] presence ;
+		private int count ;
+		private long[] longs ;
+		private int[] ints ;
+		private double[] doubles ;
+		private HashMap<String, Integer> strings ;
+		private BoFastStream binaries ;
+
+		ColumnWriter(BioTag tag, int rows) {
+			this.tag = tag ;
+			this.kind = getKind(tag) ;
+			this.presence = new byte[(rows + 7) / 8] ;
+			switch (kind) {
+			case KIND_LONG:
+				longs = new long[rows] ;
+				break ;
+			case KIND_INT:
+				ints = new int[rows] ;
+				break ;
+			case KIND_DOUBLE:
+				doubles = new double[rows] ;
+				break ;
+			case KIND_STRING:
+				ints = new int[rows] ;
+				strings = new LinkedHashMap<String, Integer>() ;
+				break ;
+			default:
+				binaries = new BoFastStream() ;
+				binaries.setLengthAsInt(true);
+			}
+		}
+
+		void add(int row, Object value, BioObj obj) {
+			try {
+				switch (kind) {
+				case KIND_LONG:
+					longs[count] = ((Number) value).longValue() ;
+					break ;
+				case KIND_INT:
+					if (value instanceof BioEnum) {
+						ints[count] = ((BioEnum) value).getOrdinal() ;
+					} else if (value instanceof Boolean) {
+						ints[count] = ((Boolean) value) ? 1 : 0 ;
+					} else {
+						ints[count] = ((Number) value).intValue() ;
+					}
+					break ;
+				case KIND_DOUBLE:
+					doubles[count] = ((Number) value).doubleValue() ;
+					break ;
+				case KIND_STRING:
+					Integer index = strings.get(value) ;
+					if (index == null) {
+						index = strings.size() ;
+						strings.put((String) value, index) ;
+					}
+					ints[count] = index ;
+					break ;
+				default:
+					// only tag info, tag code and value are written, rows are read one after another
+					int size = binaries.getSize() ;
+					binaryParser.writeValue(obj, binaries, tag.getName(), value);
+					if (binaries.getSize() == size) {
+						return ;
+					}
+				}
+			} catch (ClassCastException e) {
+				throw new ParserException(" for tag " + tag.getName() + " value " + value + " is not " + tag.getType() + " @ " + obj.getName()) ;
+			}
+			presence[row >> 3] |= 1 << (row & 7) ;
+			count++ ;
+		}
+
+		void write(BoFastStream stream) {
+			stream.write(presence);
+			switch (kind) {
+			case KIND_LONG:
+				stream.writeLongArray(Arrays.copyOf(longs, count));
+				break ;
+			case KIND_INT:
+				stream.writeIntArray(Arrays.copyOf(ints, count));
+				break ;
+			case KIND_DOUBLE:
+				stream.writeDoubleArray(Arrays.copyOf(doubles, count));
+				break ;
+			case KIND_STRING:
+				stream.writeInt(strings.size());
+				for (String value : strings.keySet()) {
+					stream.writeUtfString(value);
+				}
+				// index width depends on number of distinct values
+				stream.writeInt(count);
+				for (int i = 0; i < count; i++) {
+					if (strings.size() <= 0x100) {
+						stream.write(ints[i]);
+					} else if (strings.size() <= 0x10000) {
+						stream.writeShort(ints[i]);
+					} else {
+						stream.writeInt(ints[i]);
+					}
+				}
+				break ;
+			default:
+				stream.writeInt(count);
+				stream.write(binaries.getBytes(0, binaries.getSize()));
+			}
+		}
+	}
+}
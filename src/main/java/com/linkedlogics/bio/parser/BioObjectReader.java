@@ -0,0 +1,123 @@
+package com.linkedlogics.bio.parser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.linkedlogics.bio.BioObject;
+import com.linkedlogics.bio.exception.ParserException;
+import com.linkedlogics.bio.utility.ByteUtility;
+
+/**
+ * Reads bio objects written by {@link BioObjectWriter} one by one. Objects are decoded only when they are requested 
+ * so any number of objects can be iterated without materializing all of them. Read buffer is reused and kept at its
+ * high-water mark. For channels use {@link java.nio.channels.Channels#newInputStream}
+ * @author rdavudov
+ *
+ */
+public class BioObjectReader implements Iterable<BioObject>, Iterator<BioObject>, Closeable {
+	private InputStream in ;
+	private BioObjectBinaryParser parser ;
+	private byte[] buffer = new byte[256] ;
+	private BioObject next ;
+	private boolean isFinished ;
+	
+	public BioObjectReader(InputStream in) {
+		this(in, new BioObjectBinaryParser()) ;
+	}
+	
+	public BioObjectReader(InputStream in, BioObjectBinaryParser parser) {
+		this.in = in ;
+		this.parser = parser ;
+	}
+	
+	/**
+	 * Reads and decodes next bio object
+	 * @return null if there are no more objects
+	 */
+	public BioObject read() {
+		if (next != null) {
+			BioObject object = next ;
+			next = null ;
+			return object ;
+		}
+		
+		try {
+			while (!isFinished) {
+				if (!readFully(buffer, 4, true)) {
+					isFinished = true ;
+					return null ;
+				}
+				int length = ByteUtility.bytesToInt(buffer, 0) ;
+				// lazy objects keep referring to read bytes so buffer can't be reused for them
+				byte[] bytes = parser.isLazy() ? new byte[length] : buffer ;
+				if (bytes.length < length) {
+					bytes = buffer = new byte[Math.max(length, buffer.length * 2)] ;
+				}
+				readFully(bytes, length, false) ;
+				Object object = parser.decode(bytes, 0, length) ;
+				if (buffer.length > BioCodecContext.MAX_RETAINED_SIZE) {
+					buffer = new byte[256] ;
+				}
+				// unknown objects are decoded as null, so we continue with next one
+				if (object != null) {
+					return (BioObject) object ;
+				}
+			}
+			return null ;
+		} catch (IOException e) {
+			throw new ParserException(e) ;
+		}
+	}
+	
+	/**
+	 * Reads exactly length bytes into buffer
+	 * @param buffer
+	 * @param length
+	 * @param isEndAllowed if true then end of stream before first byte is not an error
+	 * @return false if end of stream is reached before first byte
+	 * @throws IOException
+	 */
+	private boolean readFully(byte[] buffer, int length, boolean isEndAllowed) throws IOException {
+		int offset = 0 ;
+		while (offset < length) {
+			int read = in.read(buffer, offset, length - offset) ;
+			if (read < 0) {
+				if (offset == 0 && isEndAllowed) {
+					return false ;
+				}
+				throw new ParserException("unexpected end of stream, missing " + (length - offset) + " bytes") ;
+			}
+			offset += read ;
+		}
+		return true ;
+	}
+	
+	@Override
+	public boolean hasNext() {
+		if (next == null) {
+			next = read() ;
+		}
+		return next != null ;
+	}
+
+	@Override
+	public BioObject next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException() ;
+		}
+		return read() ;
+	}
+
+	@Override
+	public Iterator<BioObject> iterator() {
+		return this ;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close() ;
+	}
+}
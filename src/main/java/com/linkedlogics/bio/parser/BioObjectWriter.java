@@ -0,0 +1,76 @@
+package com.linkedlogics.bio.parser;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.linkedlogics.bio.BioObject;
+import com.linkedlogics.bio.exception.ParserException;
+import com.linkedlogics.bio.stream.BoFastStream;
+
+/**
+ * Writes bio objects one by one to an output stream, each object is encoded by {@link BioObjectBinaryParser} and prefixed with 
+ * its length in 4 bytes. There is no limit on number of objects and nothing except a single object is kept in memory. 
+ * Objects written can be read back lazily by {@link BioObjectReader}. For channels use {@link java.nio.channels.Channels#newOutputStream}
+ * @author rdavudov
+ *
+ */
+public class BioObjectWriter implements Closeable, Flushable {
+	private OutputStream out ;
+	private BioObjectBinaryParser parser ;
+	private BoFastStream stream = new BoFastStream() ;
+	private long count ;
+	
+	public BioObjectWriter(OutputStream out) {
+		this(out, new BioObjectBinaryParser()) ;
+	}
+	
+	public BioObjectWriter(OutputStream out, BioObjectBinaryParser parser) {
+		this.out = out ;
+		this.parser = parser ;
+	}
+	
+	/**
+	 * Encodes and writes bio object
+	 * @param object
+	 * @return false if object is not encodable and nothing is written
+	 */
+	public boolean write(BioObject object) {
+		stream.reset();
+		int position = stream.reserveIntLength() ;
+		int length = parser.encode(object, stream) ;
+		if (length == 0) {
+			return false ;
+		}
+		stream.writeIntLength(position, length);
+		try {
+			stream.writeTo(out);
+		} catch (IOException e) {
+			throw new ParserException(e) ;
+		}
+		count++ ;
+		if (stream.getCapacity() > BioCodecContext.MAX_RETAINED_SIZE) {
+			stream = new BoFastStream() ;
+		}
+		return true ;
+	}
+	
+	/**
+	 * Returns number of objects written so far
+	 * @return
+	 */
+	public long getCount() {
+		return count ;
+	}
+	
+	@Override
+	public void flush() throws IOException {
+		out.flush(); 
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+}
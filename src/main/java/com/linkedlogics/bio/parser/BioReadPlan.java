@@ -0,0 +1,151 @@
+package com.linkedlogics.bio.parser;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+
+import com.linkedlogics.bio.BioObject;
+import com.linkedlogics.bio.dictionary.BioTag;
+import com.linkedlogics.bio.dictionary.BioTagCompatibility;
+import com.linkedlogics.bio.dictionary.BioType;
+import com.linkedlogics.bio.utility.ConversionUtility;
+
+/**
+ * Read plan of a bio obj for payloads of older versions. It is built at dictionary build time from {@link BioTagCompatibility}
+ * definitions of tags and maps codes used in that version to current tags together with conversion of values from
+ * the type and container used in that version to current ones, so that old payloads are converted while they are decoded
+ * @author rdavudov
+ *
+ */
+class BioReadPlan {
+	private final HashMap<Integer, TagPlan> codeMap = new HashMap<Integer, TagPlan>() ;
+	private final HashMap<String, TagPlan> nameMap = new HashMap<String, TagPlan>() ;
+
+	/**
+	 * Builds plan for payloads whose version is not greater than given version
+	 * @param tags all tags of obj including super tags, in lookup order
+	 * @param version
+	 */
+	BioReadPlan(Collection<BioTag> tags, int version) {
+		ArrayList<TagPlan> renamed = new ArrayList<TagPlan>() ;
+		for (BioTag tag : tags) {
+			TagPlan plan = new TagPlan(tag, tag.getCompatibility(version)) ;
+			nameMap.put(tag.getName(), plan) ;
+			if (plan.code != tag.getCode()) {
+				renamed.add(plan) ;
+			} else {
+				codeMap.put(plan.code, plan) ;
+			}
+		}
+		// codes of renamed tags override current codes since in that version code belonged to them
+		for (TagPlan plan : renamed) {
+			codeMap.put(plan.code, plan) ;
+		}
+	}
+
+	/**
+	 * Returns plan of tag which was encoded with given code
+	 * @param code
+	 * @return
+	 */
+	TagPlan getTag(int code) {
+		return codeMap.get(code) ;
+	}
+
+	/**
+	 * Returns plan of tag by its name
+	 * @param name
+	 * @return
+	 */
+	TagPlan getTag(String name) {
+		return nameMap.get(name) ;
+	}
+
+	/**
+	 * Plan of a single tag
+	 */
+	static class TagPlan {
+		private final BioTag tag ;
+		private final int code ;
+		private final boolean isConverted ;
+
+		TagPlan(BioTag tag, BioTagCompatibility compatibility) {
+			this.tag = tag ;
+			if (compatibility != null) {
+				this.code = compatibility.getCode() != 0 ? compatibility.getCode() : tag.getCode() ;
+				this.isConverted = compatibility.getType() != tag.getType() || compatibility.isArray() != tag.isArray() || compatibility.isList() != tag.isList() ;
+			} else {
+				this.code = tag.getCode() ;
+				this.isConverted = false ;
+			}
+		}
+
+		BioTag getTag() {
+			return tag ;
+		}
+
+		/**
+		 * Converts decoded value to current type and container of tag
+		 * @param value
+		 * @return
+		 */
+		Object convert(Object value) {
+			if (!isConverted || value == null) {
+				return value ;
+			}
+			if (tag.isArray() || tag.isList()) {
+				Object[] array ;
+				if (value instanceof List) {
+					array = ((List<?>) value).toArray() ;
+				} else if (value instanceof Object[]) {
+					array = (Object[]) value ;
+				} else if (value.getClass().isArray()) {
+					array = ConversionUtility.toObjectArray(value) ;
+				} else {
+					// a single value becomes an array or list of one element
+					array = new Object[] {value} ;
+				}
+				if (tag.getType() == BioType.BioObject || tag.getType() == BioType.Properties) {
+					return tag.isList() ? new ArrayList<Object>(Arrays.asList(array)) : toBioArray(array) ;
+				} else if (tag.getType() == BioType.BioEnum) {
+					return tag.isList() ? ConversionUtility.convertAsList(tag.getEnumObj(), array) : ConversionUtility.convertAsArray(tag.getEnumObj(), array) ;
+				}
+				Object[] converted = ConversionUtility.convertAsArray(tag.getType(), array) ;
+				if (converted == null || !tag.isList()) {
+					return converted ;
+				}
+				return new ArrayList<Object>(Arrays.asList(converted)) ;
+			}
+			if (value instanceof List) {
+				// only first element is kept if tag is not a container anymore
+				List<?> list = (List<?>) value ;
+				value = list.size() > 0 ? list.get(0) : null ;
+			} else if (value.getClass().isArray()) {
+				value = Array.getLength(value) > 0 ? Array.get(value, 0) : null ;
+			}
+			if (value == null || value instanceof BioObject) {
+				return value ;
+			} else if (tag.getType() == BioType.BioEnum) {
+				return ConversionUtility.convert(tag.getEnumObj(), value) ;
+			}
+			return ConversionUtility.convert(tag.getType(), value) ;
+		}
+
+		/**
+		 * Creates typed array of bio objects
+		 * @param array
+		 * @return
+		 */
+		private Object[] toBioArray(Object[] array) {
+			Class<?> type = tag.getObj() != null && tag.getObj().getBioClass() != null ? tag.getObj().getBioClass() : BioObject.class ;
+			Object[] result = (Object[]) Array.newInstance(type, array.length) ;
+			for (int i = 0; i < array.length; i++) {
+				result[i] = array[i] ;
+			}
+			return result ;
+		}
+	}
+}
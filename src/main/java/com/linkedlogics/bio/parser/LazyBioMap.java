@@ -0,0 +1,219 @@
+package com.linkedlogics.bio.parser;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.linkedlogics.bio.BioDictionary;
+import com.linkedlogics.bio.dictionary.BioObj;
+import com.linkedlogics.bio.dictionary.BioTag;
+import com.linkedlogics.bio.exception.ParserException;
+import com.linkedlogics.bio.stream.BiFastStream;
+
+/**
+ * Map of {@link LazyBioObject} which keeps encoded bytes and index of tag positions built by skipping values. 
+ * Values are decoded only when they are accessed for the first time and then kept in a regular map. 
+ * Iterating over entries decodes all remaining values.
+ * @author rdavudov
+ *
+ */
+class LazyBioMap extends AbstractMap<String, Object> {
+	private final BioObjectBinaryParser parser ;
+	private final BioObj obj ;
+	private final BiFastStream stream ;
+	/**
+	 * Read plan if payload is of an older version
+	 */
+	private final BioReadPlan plan ;
+	/**
+	 * Index of tags in order of their positions
+	 */
+	private BioTag[] tags = new BioTag[8] ;
+	private int[] infos = new int[8] ;
+	private int[] positions = new int[8] ;
+	private int count ;
+	/**
+	 * Index of not yet decoded tags by their names, decoded or removed tags are removed from it
+	 */
+	private final HashMap<String, Integer> pending = new HashMap<String, Integer>() ;
+	/**
+	 * Decoded values and values put after decoding
+	 */
+	private final HashMap<String, Object> values = new HashMap<String, Object>() ;
+	
+	LazyBioMap(BioObjectBinaryParser parser, BioObj obj, BiFastStream stream, BioReadPlan plan) throws Exception {
+		this.parser = parser ;
+		this.obj = obj ;
+		this.stream = stream ;
+		this.plan = plan ;
+		index() ;
+	}
+	
+	/**
+	 * Builds index by reading only tag info and tag code and skipping values
+	 * @throws Exception
+	 */
+	private void index() throws Exception {
+		while (stream.available() > 0) {
+			int tagInfo = stream.readTagInfo() ;
+			int tagCode = stream.readTagCode(tagInfo) ;
+			BioTag tag = null ;
+			if (plan != null) {
+				BioReadPlan.TagPlan tagPlan = plan.getTag(tagCode) ;
+				tag = tagPlan != null ? tagPlan.getTag() : null ;
+			} else {
+				tag = obj.getTag(tagCode) ;
+				if (tag == null) {
+					tag = BioDictionary.getDictionary(obj.getDictionary()).getSuperTag(tagCode) ;
+				}
+			}
+			int position = stream.getPosition() ;
+			stream.skipValue(BiFastStream.getTagType(tagInfo), BiFastStream.getTagContainer(tagInfo));
+			if (tag != null) {
+				add(tag, tagInfo, position) ;
+			}
+		}
+	}
+	
+	private void add(BioTag tag, int tagInfo, int position) {
+		if (count == tags.length) {
+			int length = count * 2 ;
+			BioTag[] newTags = new BioTag[length] ;
+			System.arraycopy(tags, 0, newTags, 0, count);
+			tags = newTags ;
+			int[] newInfos = new int[length] ;
+			System.arraycopy(infos, 0, newInfos, 0, count);
+			infos = newInfos ;
+			int[] newPositions = new int[length] ;
+			System.arraycopy(positions, 0, newPositions, 0, count);
+			positions = newPositions ;
+		}
+		tags[count] = tag ;
+		infos[count] = tagInfo ;
+		positions[count] = position ;
+		// if tag is repeated last value is used
+		pending.put(tag.getName(), count) ;
+		count++ ;
+	}
+	
+	/**
+	 * Finds index of not yet decoded tag
+	 * @param key
+	 * @return -1 if tag is not pending
+	 */
+	private int find(Object key) {
+		if (pending.isEmpty()) {
+			return -1 ;
+		}
+		Integer i = pending.get(key) ;
+		return i != null ? i : -1 ;
+	}
+	
+	/**
+	 * Decodes pending tag value and moves it to values
+	 * @param i
+	 * @return
+	 */
+	private Object decode(int i) {
+		BioTag tag = tags[i] ;
+		pending.remove(tag.getName()) ;
+		int container = BiFastStream.getTagContainer(infos[i]) ;
+		try {
+			Object value = parser.readValue(obj, BiFastStream.getTagType(infos[i]), container == 1, container == 2, tag, stream.slice(positions[i])) ;
+			if (plan != null) {
+				value = plan.getTag(tag.getName()).convert(value) ;
+			}
+			if (value != null) {
+				values.put(tag.getName(), value) ;
+			}
+			return value ;
+		} catch (ParserException e) {
+			throw e ;
+		} catch (Throwable e) {
+			throw new ParserException(e) ;
+		}
+	}
+	
+	/**
+	 * Decodes all pending values
+	 */
+	private void decodeAll() {
+		for (int i = 0; i < count && !pending.isEmpty(); i++) {
+			Integer index = pending.get(tags[i].getName()) ;
+			if (index != null && index == i) {
+				decode(i) ;
+			}
+		}
+	}
+	
+	/**
+	 * Checks whether value of given key is already decoded
+	 * @param key
+	 * @return
+	 */
+	boolean isDecoded(String key) {
+		return find(key) < 0 ;
+	}
+	
+	@Override
+	public Object get(Object key) {
+		Object value = values.get(key) ;
+		if (value == null) {
+			int i = find(key) ;
+			if (i >= 0) {
+				return decode(i) ;
+			}
+		}
+		return value ;
+	}
+	
+	@Override
+	public boolean containsKey(Object key) {
+		return values.containsKey(key) || find(key) >= 0 ;
+	}
+	
+	@Override
+	public Object put(String key, Object value) {
+		Object old = get(key) ;
+		values.put(key, value) ;
+		return old ;
+	}
+	
+	@Override
+	public Object remove(Object key) {
+		Object old = get(key) ;
+		values.remove(key) ;
+		return old ;
+	}
+	
+	@Override
+	public int size() {
+		return values.size() + pending.size() ;
+	}
+	
+	@Override
+	public void clear() {
+		pending.clear() ;
+		values.clear();
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		decodeAll() ;
+		return values.entrySet() ;
+	}
+	
+	@Override
+	public Set<String> keySet() {
+		decodeAll() ;
+		return values.keySet() ;
+	}
+	
+	@Override
+	public void putAll(Map<? extends String, ? extends Object> map) {
+		for (Entry<? extends String, ? extends Object> e : map.entrySet()) {
+			put(e.getKey(), e.getValue()) ;
+		}
+	}
+}
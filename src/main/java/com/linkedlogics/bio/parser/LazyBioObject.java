@@ -0,0 +1,73 @@
+package com.linkedlogics.bio.parser;
+
+import java.util.Map.Entry;
+
+import com.linkedlogics.bio.BioObject;
+import com.linkedlogics.bio.dictionary.BioObj;
+import com.linkedlogics.bio.exception.DictionaryException;
+
+/**
+ * Bio object decoded by {@link BioObjectBinaryParser} in lazy mode. It keeps encoded bytes together with an index of tag positions 
+ * and decodes a value (including nested bio objects) only when it is accessed for the first time. Encoded bytes are not copied
+ * therefore they must not be changed while lazy object is in use. Since it is a generic bio object, {@link #materialize()} 
+ * can be used to get an instance of actual bio class
+ * @author rdavudov
+ *
+ */
+public class LazyBioObject extends BioObject {
+	private final BioObj obj ;
+	
+	LazyBioObject(BioObj obj, int version, LazyBioMap map) {
+		super(0) ;
+		this.obj = obj ;
+		setBioDictionary(obj.getDictionary());
+		setBioCode(obj.getCode());
+		setBioName(obj.getName());
+		setBioVersion(version);
+		setMap(map);
+	}
+	
+	/**
+	 * Checks whether value of given key is already decoded
+	 * @param key
+	 * @return
+	 */
+	public boolean isDecoded(String key) {
+		return ((LazyBioMap) getMap()).isDecoded(key) ;
+	}
+	
+	/**
+	 * Decodes all remaining values and creates an instance of actual bio class, nested lazy bio objects are materialized as well
+	 * @return
+	 */
+	public BioObject materialize() {
+		try {
+			BioObject bio = null ;
+			if (obj.getBioClass() != null) {
+				bio = ((BioObject) obj.getBioClass().getConstructor().newInstance()).empty() ;
+				bio.setBioCode(getBioCode());
+				bio.setBioName(getBioName());
+				bio.setBioVersion(getBioVersion());
+			} else {
+				bio = new BioObject(getBioCode(), getBioName(), getBioVersion(), getBioDictionary()).empty() ;
+			}
+			for (Entry<String, Object> e : entries()) {
+				if (e.getValue() instanceof LazyBioObject) {
+					bio.put(e.getKey(), ((LazyBioObject) e.getValue()).materialize()) ;
+				} else {
+					bio.put(e.getKey(), e.getValue()) ;
+				}
+			}
+			return bio ;
+		} catch (NoSuchMethodException e) {
+			throw new DictionaryException("unable to materialize because class " + obj.getBioClass().getName() + " has no default constructor") ;
+		} catch (Throwable e) {
+			throw new RuntimeException(e) ;
+		}
+	}
+	
+	@Override
+	public BioObject clone() {
+		return materialize().clone() ;
+	}
+}
@@ -0,0 +1,180 @@
+package com.linkedlogics.bio.stream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.linkedlogics.bio.utility.ByteUtility;
+
+/**
+ * Input stream reading directly from a {@link java.nio.ByteBuffer} (heap or direct) between its position and limit. 
+ * Given buffer's position is not changed because stream works on its duplicate, nested bio objects are read from
+ * the same memory without copying
+ * @author rdavudov
+ *
+ */
+public class BiByteBufferStream extends BiFastStream {
+	private static final byte[] EMPTY = new byte[0] ;
+	
+	private ByteBuffer buffer ;
+	
+	public BiByteBufferStream(ByteBuffer buffer) {
+		super(EMPTY) ;
+		this.buffer = buffer.duplicate() ;
+		this.buffer.order(ByteOrder.BIG_ENDIAN) ;
+	}
+	
+	@Override
+	public int available() {
+		return buffer.remaining() ;
+	}
+	
+	@Override
+	public int read(byte[] array) {
+		buffer.get(array) ;
+		return array.length ;
+	}
+	
+	@Override
+	public Long readLong() {
+		return buffer.getLong() ;
+	}
+	
+	@Override
+	public int readInt() {
+		return buffer.getInt() ;
+	}
+	
+	@Override
+	public short readShort() {
+		return buffer.getShort() ;
+	}
+	
+	@Override
+	public byte readByte() {
+		return buffer.get() ;
+	}
+	
+	@Override
+	public double readDouble() {
+		return buffer.getDouble() ;
+	}
+	
+	@Override
+	public float readFloat() {
+		return buffer.getFloat() ;
+	}
+	
+	@Override
+	protected void readLongs(long[] array) {
+		int length = array.length << 3 ;
+		checkRemaining(length) ;
+		buffer.asLongBuffer().get(array) ;
+		buffer.position(buffer.position() + length) ;
+	}
+	
+	@Override
+	protected void readInts(int[] array) {
+		int length = array.length << 2 ;
+		checkRemaining(length) ;
+		buffer.asIntBuffer().get(array) ;
+		buffer.position(buffer.position() + length) ;
+	}
+	
+	@Override
+	protected void readDoubles(double[] array) {
+		int length = array.length << 3 ;
+		checkRemaining(length) ;
+		buffer.asDoubleBuffer().get(array) ;
+		buffer.position(buffer.position() + length) ;
+	}
+	
+	@Override
+	protected String readAsciiString(int length) {
+		if (buffer.hasArray()) {
+			String value = ByteUtility.bytesToAsciiString(buffer.array(), buffer.arrayOffset() + buffer.position(), length) ;
+			skip(length) ;
+			return value ;
+		}
+		return ByteUtility.bytesToAsciiString(read(length)) ;
+	}
+	
+	@Override
+	protected String readUtfString(int length) {
+		if (buffer.hasArray()) {
+			String value = ByteUtility.bytesToUtfString(buffer.array(), buffer.arrayOffset() + buffer.position(), length) ;
+			skip(length) ;
+			return value ;
+		}
+		return ByteUtility.bytesToUtfString(read(length)) ;
+	}
+	
+	@Override
+	protected byte peekByte() {
+		return buffer.get(buffer.position()) ;
+	}
+	
+	@Override
+	protected Object readSerializedObject(int length) {
+		try {
+			ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(read(length))) ;
+			Object object = in.readObject() ;
+			in.close();
+			return object ;
+		} catch (Throwable e) {
+			throw new RuntimeException(e) ; 
+		}
+	}
+	
+	@Override
+	public BiFastStream readBioStream() {
+		int length = readIntLength() ;
+		ByteBuffer nested = buffer.duplicate() ;
+		nested.limit(buffer.position() + length) ;
+		skip(length) ;
+		BiByteBufferStream stream = new BiByteBufferStream(nested) ;
+		stream.setCompact(isCompact());
+		stream.setStringTable(getStringTable());
+		return stream ;
+	}
+	
+	@Override
+	public int getPosition() {
+		return buffer.position() ;
+	}
+	
+	@Override
+	public BiFastStream slice(int position) {
+		ByteBuffer sliced = buffer.duplicate() ;
+		sliced.position(position) ;
+		BiByteBufferStream stream = new BiByteBufferStream(sliced) ;
+		stream.setCompact(isCompact());
+		stream.setLengthAsInt(isLengthAsInt());
+		stream.setStringTable(getStringTable());
+		return stream ;
+	}
+	
+	@Override
+	public byte[] read(int len) {
+		if (len <= buffer.remaining()) {
+			byte[] read = new byte[len] ;
+			buffer.get(read) ;
+			return read ;
+		} else {
+			throw new RuntimeException("missing bytes left " + buffer.remaining() + " but needed " + len + " bytes") ;
+		}
+	}
+	
+	@Override
+	public void skip(int len) {
+		checkRemaining(len) ;
+		buffer.position(buffer.position() + len) ;
+	}
+	
+	private void checkRemaining(int len) {
+		if (len > buffer.remaining()) {
+			throw new RuntimeException("missing bytes left " + buffer.remaining() + " but needed " + len + " bytes") ;
+		}
+	}
+}
@@ -4,23 +4,36 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 
+import com.linkedlogics.bio.BioDictionary;
+import com.linkedlogics.bio.BioJavaObjectCodec;
 import com.linkedlogics.bio.BioObject;
 import com.linkedlogics.bio.dictionary.BioObj;
 import com.linkedlogics.bio.dictionary.BioType;
 import com.linkedlogics.bio.utility.ByteUtility;
 
 /**
- * Fast streams are not creating additional byte arrays instead they are using original one
+ * Fast streams are not creating additional byte arrays instead they are using original one. All other reads are built on top of
+ * primitive reads such as {@link #readByte()}, {@link #readInt()} etc. so that subclasses can read from other storages by overriding 
+ * only them (see {@link BiByteBufferStream})
  * @author rdavudov
  *
  */
 public class BiFastStream extends InputStream {
+	/**
+	 * First byte of java serialized objects (high byte of stream magic), codec ids never match it
+	 */
+	private static final int SERIALIZATION_MARKER = 0xAC ;
+	
 	private byte[] buffer;
 	
 	private int pos;
 	private int length;
 	private boolean isLengthAsInt ;
+	private boolean isCompact ;
+	private StringTable stringTable ;
 	
 	public BiFastStream(byte[] data) {
 		buffer = data ;
@@ -41,6 +54,45 @@ public class BiFastStream extends InputStream {
 	public void setLengthAsInt(boolean isLengthAsInt) {
 		this.isLengthAsInt = isLengthAsInt;
 	}
+	
+	/**
+	 * Indicates whether stream contains compact format (see {@link BoFastStream#isCompact()})
+	 * @return
+	 */
+	public boolean isCompact() {
+		return isCompact;
+	}
+
+	public void setCompact(boolean isCompact) {
+		this.isCompact = isCompact;
+	}
+	
+	/**
+	 * Indicates whether strings can be back references to earlier literals (see {@link BoFastStream#enableStringTable()})
+	 * @return
+	 */
+	public boolean isStringTable() {
+		return stringTable != null ;
+	}
+	
+	/**
+	 * Starts string table at current position which must be the same position where encoding stream started its table
+	 */
+	public void enableStringTable() {
+		stringTable = new StringTable(getPosition()) ;
+	}
+	
+	public void disableStringTable() {
+		stringTable = null ;
+	}
+	
+	StringTable getStringTable() {
+		return stringTable ;
+	}
+	
+	void setStringTable(StringTable stringTable) {
+		this.stringTable = stringTable ;
+	}
 
 	@Override
 	public int available() throws IOException {
@@ -48,28 +100,66 @@ public class BiFastStream extends InputStream {
 	}
 	
 	public int readObjCode() {
-		int code = ByteUtility.bytesToShort(buffer, pos) ;
-		pos+=2 ;
-		return code ;
+		if (isCompact) {
+			return readCompactShort() ;
+		}
+		return readShort() ;
 	}
 	
 	public int readObjVersion() {
-		int code = ByteUtility.bytesToShort(buffer, pos) ;
-		pos+=2 ;
-		return code ;
+		if (isCompact) {
+			return readCompactShort() ;
+		}
+		return readShort() ;
 	}
 	
 	public int readTagCode() {
-		int code = ByteUtility.bytesToShort(buffer, pos) ;
-		pos+=2 ;
-		return code ;
+		return readShort() ;
+	}
+	
+	/**
+	 * Reads tag type and container written by {@link BoFastStream#writeTagInfo(com.linkedlogics.bio.dictionary.BioTag, int)}, 
+	 * result is always in packed form which can be split by {@link #getTagType(int)} and {@link #getTagContainer(int)}
+	 * @return
+	 */
+	public int readTagInfo() {
+		if (isCompact) {
+			return readByte() & 0xFF ;
+		}
+		int type = readByte() ;
+		int container = readByte() ;
+		return type | container << 5 ;
+	}
+	
+	/**
+	 * Reads tag code which follows given tag info
+	 * @param tagInfo
+	 * @return
+	 */
+	public int readTagCode(int tagInfo) {
+		if (isCompact) {
+			int code = readCompactShort() ;
+			return (tagInfo & 0x80) != 0 ? -code : code ;
+		}
+		return readShort() ;
+	}
+	
+	public static BioType getTagType(int tagInfo) {
+		return BioType.getType((byte) (tagInfo & 0x1F)) ;
+	}
+	
+	/**
+	 * Returns container of tag, 0 is single value, 1 is array and 2 is list
+	 * @param tagInfo
+	 * @return
+	 */
+	public static int getTagContainer(int tagInfo) {
+		return (tagInfo >> 5) & 0x03 ;
 	}
 	
 	@Override
 	public int read() throws IOException {
-		int value = ByteUtility.bytesToInt(buffer, pos) ;
-		pos+=4 ;
-		return value ;
+		return readInt() ;
 	}
 	
 	@Override
@@ -80,21 +170,77 @@ public class BiFastStream extends InputStream {
 	}
 	
 	public int readLength() {
-		if (isLengthAsInt) {
-			int len = ByteUtility.bytesToInt(buffer, pos) ;
-			pos+=4 ;
-			return len ;
+		if (isCompact) {
+			return readVarInt() ;
+		} else if (isLengthAsInt) {
+			return readInt() ;
 		} else {
-			int len = ByteUtility.bytesToShort(buffer, pos) ;
-			pos+=2 ;
-			return len ;
+			return readShort() ;
 		}
 	}
 	
 	public int readIntLength() {
-		int len = ByteUtility.bytesToInt(buffer, pos) ;
-		pos+=4 ;
-		return len ;
+		return readInt() ;
+	}
+	
+	/**
+	 * Reads integer value written by {@link BoFastStream#writeIntValue(int)}
+	 * @return
+	 */
+	public int readIntValue() {
+		if (isCompact) {
+			int value = readVarInt() ;
+			return (value >>> 1) ^ -(value & 1) ;
+		}
+		return readInt() ;
+	}
+	
+	/**
+	 * Reads long value written by {@link BoFastStream#writeLongValue(long)}
+	 * @return
+	 */
+	public long readLongValue() {
+		if (isCompact) {
+			long value = readVarLong() ;
+			return (value >>> 1) ^ -(value & 1) ;
+		}
+		return readLong() ;
+	}
+	
+	public int readVarInt() {
+		int value = 0 ;
+		for (int shift = 0; shift < 32; shift += 7) {
+			byte b = readByte() ;
+			value |= (b & 0x7F) << shift ;
+			if (b >= 0) {
+				return value ;
+			}
+		}
+		throw new RuntimeException("malformed varint") ;
+	}
+	
+	public long readVarLong() {
+		long value = 0 ;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = readByte() ;
+			value |= (long) (b & 0x7F) << shift ;
+			if (b >= 0) {
+				return value ;
+			}
+		}
+		throw new RuntimeException("malformed varint") ;
+	}
+	
+	/**
+	 * Reads value written by {@link BoFastStream#writeCompactShort(int)}
+	 * @return
+	 */
+	public int readCompactShort() {
+		int b = readByte() & 0xFF ;
+		if (b < 0x80) {
+			return b ;
+		}
+		return (b & 0x7F) << 8 | (readByte() & 0xFF) ;
 	}
 	
 	public Long readLong() {
@@ -136,21 +282,101 @@ public class BiFastStream extends InputStream {
 	}
 	
 	public String readAsciiString() {
-		int length = readLength() ;
+		if (stringTable != null) {
+			return readTableString(false) ;
+		}
+		return readAsciiString(readLength()) ;
+	}
+	
+	public String readUtfString() {
+		if (stringTable != null) {
+			return readTableString(true) ;
+		}
+		return readUtfString(readLength()) ;
+	}
+	
+	/**
+	 * Reads ascii string of given length
+	 * @param length
+	 * @return
+	 */
+	protected String readAsciiString(int length) {
 		String value = ByteUtility.bytesToAsciiString(buffer, pos, length) ;
 		pos+=length ;
 		return value ;
 	}
 	
-	public String readUtfString() {
-		int length = readLength() ;
+	/**
+	 * Reads utf string of given length
+	 * @param length
+	 * @return
+	 */
+	protected String readUtfString(int length) {
 		String value = ByteUtility.bytesToUtfString(buffer, pos, length) ;
 		pos+=length ;
 		return value ;
 	}
 	
+	/**
+	 * Reads either a literal or a back reference to earlier literal, decoded literals are cached by their positions 
+	 * so that equal strings share the same instance
+	 * @param isUtf
+	 * @return
+	 */
+	private String readTableString(boolean isUtf) {
+		int position = getPosition() - stringTable.getBase() ;
+		int header = readVarInt() ;
+		if ((header & 1) != 0) {
+			int literal = header >>> 1 ;
+			String value = stringTable.get(literal) ;
+			if (value == null) {
+				value = slice(stringTable.getBase() + literal).readTableString(isUtf) ;
+			}
+			return value ;
+		}
+		int length = header >>> 1 ;
+		String value = stringTable.get(position) ;
+		if (value != null) {
+			skip(length) ;
+			return value ;
+		}
+		value = isUtf ? readUtfString(length) : readAsciiString(length) ;
+		stringTable.put(position, value) ;
+		return value ;
+	}
+	
+	/**
+	 * Reads java object, values encoded by a codec start with codec id while java serialized ones start with stream magic
+	 * @return
+	 */
 	public Object readObject() {
 		int length = readLength() ;
+		int marker = peekByte() & 0xFF ;
+		if (marker != SERIALIZATION_MARKER) {
+			BioJavaObjectCodec codec = BioDictionary.getJavaObjectCodec(marker) ;
+			if (codec == null) {
+				throw new RuntimeException("java object codec " + marker + " is not found") ;
+			}
+			skip(1) ;
+			return codec.read(this, length - 1) ;
+		}
+		return readSerializedObject(length) ;
+	}
+	
+	/**
+	 * Returns next byte without moving position
+	 * @return
+	 */
+	protected byte peekByte() {
+		return buffer[pos] ;
+	}
+	
+	/**
+	 * Reads java serialized object
+	 * @param length
+	 * @return
+	 */
+	protected Object readSerializedObject(int length) {
 		try {
 			ByteArrayInputStream bytesIn = new ByteArrayInputStream(buffer, pos, length) ;
 			ObjectInputStream in = new ObjectInputStream(bytesIn) ;
@@ -169,25 +395,34 @@ public class BiFastStream extends InputStream {
 		for (int i = 0; i < size; i++) {
 			String key = readAsciiString() ;
 			BioType primitiveType = BioType.getType(readByte()) ;
-			boolean isArray = readByte() == 1 ;
+			byte arrayMarker = readByte() ;
+			boolean isArray = arrayMarker != 0 ;
+			// primitive arrays are marked with 2
+			boolean isPrimitiveArray = arrayMarker == 2 ;
 			Object value = null ;
 			switch (primitiveType) {
 			case Long:
-				if (isArray) {
+				if (isPrimitiveArray) {
+					value = readPrimitiveLongArray() ;
+				} else if (isArray) {
 					value = readLongArray() ;
 				} else {
-					value = readLong() ;
+					value = readLongValue() ;
 				}
 				break;
 			case Integer:
-				if (isArray) {
+				if (isPrimitiveArray) {
+					value = readPrimitiveIntArray() ;
+				} else if (isArray) {
 					value = readIntArray() ;
 				} else {
-					value = readInt() ;
+					value = readIntValue() ;
 				}
 				break;
 			case Double:
-				if (isArray) {
+				if (isPrimitiveArray) {
+					value = readPrimitiveDoubleArray() ;
+				} else if (isArray) {
 					value = readDoubleArray() ;
 				} else {
 					value = readDouble() ;
@@ -228,6 +463,13 @@ public class BiFastStream extends InputStream {
 					value = readAsciiString() ;
 				}
 				break;
+			case JavaObject:
+				if (isArray) {
+					value = readObjectArray() ;
+				} else {
+					value = readObject() ;
+				}
+				break;
 			case Unknown:
 				break;
 			}
@@ -242,24 +484,119 @@ public class BiFastStream extends InputStream {
 		return bytes ;
 	}
 	
+	/**
+	 * Returns a stream over nested bio object bytes which shares the same buffer, so no bytes are copied
+	 * @return
+	 */
+	public BiFastStream readBioStream() {
+		int length = readIntLength() ;
+		BiFastStream stream = new BiFastStream(buffer, pos, length) ;
+		stream.setCompact(isCompact);
+		stream.setStringTable(stringTable);
+		skip(length) ;
+		return stream ;
+	}
+	
 	public Long[] readLongArray() {
 		int length = readLength() ;
 		Long[] longArray = new Long[length] ;
 		for (int i = 0; i < length; i++) {
-			longArray[i] = readLong() ;
+			longArray[i] = readLongValue() ;
 		}
 		return longArray ;
 	}
 	
+	/**
+	 * Reads long array without boxing, bytes are bulk copied unless format is compact
+	 * @return
+	 */
+	public long[] readPrimitiveLongArray() {
+		int length = readLength() ;
+		long[] longArray = new long[length] ;
+		if (isCompact) {
+			for (int i = 0; i < length; i++) {
+				longArray[i] = readLongValue() ;
+			}
+		} else {
+			readLongs(longArray) ;
+		}
+		return longArray ;
+	}
+	
+	/**
+	 * Reads long array directly into a list
+	 * @return
+	 */
+	public ArrayList<Long> readLongList() {
+		int length = readLength() ;
+		ArrayList<Long> list = new ArrayList<Long>(length) ;
+		for (int i = 0; i < length; i++) {
+			list.add(readLongValue()) ;
+		}
+		return list ;
+	}
+	
+	/**
+	 * Bulk copies longs from buffer
+	 * @param array
+	 */
+	protected void readLongs(long[] array) {
+		int length = array.length << 3 ;
+		checkAvailable(length) ;
+		ByteBuffer.wrap(buffer, pos, length).asLongBuffer().get(array) ;
+		pos += length ;
+	}
+	
 	public Integer[] readIntArray() {
 		int length = readLength() ;
 		Integer[] intArray = new Integer[length] ;
 		for (int i = 0; i < length; i++) {
-			intArray[i] = readInt() ;
+			intArray[i] = readIntValue() ;
+		}
+		return intArray ;
+	}
+	
+	/**
+	 * Reads int array without boxing, bytes are bulk copied unless format is compact
+	 * @return
+	 */
+	public int[] readPrimitiveIntArray() {
+		int length = readLength() ;
+		int[] intArray = new int[length] ;
+		if (isCompact) {
+			for (int i = 0; i < length; i++) {
+				intArray[i] = readIntValue() ;
+			}
+		} else {
+			readInts(intArray) ;
 		}
 		return intArray ;
 	}
 	
+	/**
+	 * Reads int array directly into a list
+	 * @return
+	 */
+	public ArrayList<Integer> readIntList() {
+		int length = readLength() ;
+		ArrayList<Integer> list = new ArrayList<Integer>(length) ;
+		for (int i = 0; i < length; i++) {
+			list.add(readIntValue()) ;
+		}
+		return list ;
+	}
+	
+	/**
+	 * Bulk copies ints from buffer
+	 * @param array
+	 */
+	protected void readInts(int[] array) {
+		int length = array.length << 2 ;
+		checkAvailable(length) ;
+		ByteBuffer.wrap(buffer, pos, length).asIntBuffer().get(array) ;
+		pos += length ;
+	}
+	
 	public Byte[] readByteArray() {
 		int length = readLength() ;
 		Byte[] byteArray = new Byte[length] ;
@@ -305,6 +642,41 @@ public class BiFastStream extends InputStream {
 		return doubleArray ;
 	}
 	
+	/**
+	 * Reads double array without boxing, bytes are bulk copied
+	 * @return
+	 */
+	public double[] readPrimitiveDoubleArray() {
+		int length = readLength() ;
+		double[] doubleArray = new double[length] ;
+		readDoubles(doubleArray) ;
+		return doubleArray ;
+	}
+	
+	/**
+	 * Reads double array directly into a list
+	 * @return
+	 */
+	public ArrayList<Double> readDoubleList() {
+		int length = readLength() ;
+		ArrayList<Double> list = new ArrayList<Double>(length) ;
+		for (int i = 0; i < length; i++) {
+			list.add(readDouble()) ;
+		}
+		return list ;
+	}
+	
+	/**
+	 * Bulk copies doubles from buffer
+	 * @param array
+	 */
+	protected void readDoubles(double[] array) {
+		int length = array.length << 3 ;
+		checkAvailable(length) ;
+		ByteBuffer.wrap(buffer, pos, length).asDoubleBuffer().get(array) ;
+		pos += length ;
+	}
+	
 	public Float[] readFloatArray() {
 		int length = readLength() ;
 		Float[] floatArray = new Float[length] ;
@@ -342,15 +714,23 @@ public class BiFastStream extends InputStream {
 	}
 	
 	public void skipLength() {
-		skip(2) ;
+		readLength() ;
 	}
 	
 	public void skipLong() {
-		skip(8) ;
+		if (isCompact) {
+			readVarLong() ;
+		} else {
+			skip(8) ;
+		}
 	}
 	
 	public void skipInt() {
-		skip(4) ;
+		if (isCompact) {
+			readVarInt() ;
+		} else {
+			skip(4) ;
+		}
 	}
 	
 	public void skipShort() {
@@ -369,16 +749,35 @@ public class BiFastStream extends InputStream {
 		skip(8) ;
 	}
 	
+	public void skipFloat() {
+		skip(4) ;
+	}
+	
 	public void skipAsciiString() {
+		if (stringTable != null) {
+			skipTableString() ;
+			return ;
+		}
 		int length = readLength() ;
 		skip(length) ;
 	}
 	
 	public void skipUtfString() {
+		if (stringTable != null) {
+			skipTableString() ;
+			return ;
+		}
 		int length = readLength() ;
 		skip(length) ;
 	}
 	
+	private void skipTableString() {
+		int header = readVarInt() ;
+		if ((header & 1) == 0) {
+			skip(header >>> 1) ;
+		}
+	}
+	
 	public void skipObject() {
 		int length = readLength() ;
 		skip(length) ;
@@ -386,12 +785,29 @@ public class BiFastStream extends InputStream {
 	
 	public void skipLongArray() {
 		int length = readLength() ;
-		skip(length) ;
+		if (isCompact) {
+			for (int i = 0; i < length; i++) {
+				readVarLong() ;
+			}
+		} else {
+			skip(length << 3) ;
+		}
 	}
 	
 	public void skipIntArray() {
 		int length = readLength() ;
-		skip(length) ;
+		if (isCompact) {
+			for (int i = 0; i < length; i++) {
+				readVarInt() ;
+			}
+		} else {
+			skip(length << 2) ;
+		}
+	}
+	
+	public void skipShortArray() {
+		int length = readLength() ;
+		skip(length << 1) ;
 	}
 	
 	public void skipByteArray() {
@@ -400,7 +816,7 @@ public class BiFastStream extends InputStream {
 	}
 	
 	public void skipBioBytes() {
-		int length = readLength() ;
+		int length = readIntLength() ;
 		skip(length) ;
 	}
 	
@@ -411,7 +827,12 @@ public class BiFastStream extends InputStream {
 	
 	public void skipDoubleArray() {
 		int length = readLength() ;
-		skip(length) ;
+		skip(length << 3) ;
+	}
+	
+	public void skipFloatArray() {
+		int length = readLength() ;
+		skip(length << 2) ;
 	}
 	
 	public void skipAsciiStringArray() {
@@ -435,12 +856,26 @@ public class BiFastStream extends InputStream {
 		}
 	}
 	
+	/**
+	 * Skips nested bio object prefixed with its length
+	 */
+	public void skipBioObject() {
+		skipBioBytes() ;
+	}
+	
+	public void skipBioObjectArray() {
+		int size = readLength() ;
+		for (int i = 0; i < size; i++) {
+			skipBioBytes() ;
+		}
+	}
+	
 	public void skipProperties() {
 		int size = readLength() ;
 		for (int i = 0; i < size; i++) {
 			skipAsciiString() ;
 			BioType primitiveType = BioType.getType(readByte()) ;
-			boolean isArray = readByte() == 1 ;
+			boolean isArray = readByte() != 0 ;
 			switch (primitiveType) {
 			case Long:
 				if (isArray) {
@@ -477,6 +912,20 @@ public class BiFastStream extends InputStream {
 					skipByte() ;
 				}
 				break;
+			case Short:
+				if (isArray) {
+					skipShortArray() ;
+				} else {
+					skipShort() ;
+				}
+				break;
+			case Float:
+				if (isArray) {
+					skipFloatArray() ;
+				} else {
+					skipFloat() ;
+				}
+				break;
 			case String:
 				if (isArray) {
 					skipAsciiStringArray() ;
@@ -484,13 +933,139 @@ public class BiFastStream extends InputStream {
 					skipAsciiString() ;
 				}
 				break;
+			case JavaObject:
+				if (isArray) {
+					skipObjectArray() ;
+				} else {
+					skipObject() ;
+				}
+				break;
 			case Unknown:
+				// nothing is written for unknown values
+				break;
+			}
+		}
+	}
+	
+	/**
+	 * Skips tag value of given type and container (0 single, 1 array, 2 list) without decoding it
+	 * @param type
+	 * @param container
+	 */
+	public void skipValue(BioType type, int container) {
+		if (container == 0) {
+			switch (type) {
+			case Long:
+			case Time:
+				skipLong() ;
+				break;
+			case Integer:
+			case BioEnum:
+				skipInt() ;
+				break;
+			case Double:
+				skipDouble() ;
+				break;
+			case Float:
+				skipFloat() ;
+				break;
+			case Short:
+				skipShort() ;
+				break;
+			case Byte:
+				skipByte() ;
+				break;
+			case Boolean:
+				skipBoolean() ;
+				break;
+			case String:
 				skipAsciiString() ;
 				break;
+			case UtfString:
+				skipUtfString() ;
+				break;
+			case JavaObject:
+				skipObject() ;
+				break;
+			case Properties:
+				skipProperties() ;
+				break;
+			case BioObject:
+				skipBioObject() ;
+				break;
+			case BioMap:
+			case BioList:
+				skipBioObjectArray() ;
+				break;
+			default:
+				throw new RuntimeException("unable to skip " + type + " value") ;
+			}
+		} else {
+			switch (type) {
+			case Long:
+			case Time:
+				skipLongArray() ;
+				break;
+			case Integer:
+			case BioEnum:
+				skipIntArray() ;
+				break;
+			case Double:
+				skipDoubleArray() ;
+				break;
+			case Float:
+				skipFloatArray() ;
+				break;
+			case Short:
+				skipShortArray() ;
+				break;
+			case Byte:
+				skipByteArray() ;
+				break;
+			case Boolean:
+				skipBooleanArray() ;
+				break;
+			case String:
+				skipAsciiStringArray() ;
+				break;
+			case UtfString:
+				skipUtfStringArray() ;
+				break;
+			case JavaObject:
+				skipObjectArray() ;
+				break;
+			case Properties:
+			case BioObject:
+				skipBioObjectArray() ;
+				break;
+			default:
+				throw new RuntimeException("unable to skip " + type + " values") ;
 			}
 		}
 	}
 	
+	/**
+	 * Returns current read position in underlying buffer
+	 * @return
+	 */
+	public int getPosition() {
+		return pos ;
+	}
+	
+	/**
+	 * Returns a stream over the same buffer starting from given position till the end of this stream, 
+	 * so that values can be read later again without copying bytes
+	 * @param position
+	 * @return
+	 */
+	public BiFastStream slice(int position) {
+		BiFastStream stream = new BiFastStream(buffer, position, length - position) ;
+		stream.setCompact(isCompact);
+		stream.setLengthAsInt(isLengthAsInt);
+		stream.setStringTable(stringTable);
+		return stream ;
+	}
+	
 	public byte[] read(int len) {
 		if (this.pos + len <= length) {
 			byte[] read = new byte[len] ;
@@ -502,6 +1077,12 @@ public class BiFastStream extends InputStream {
 		}
 	}
 	
+	private void checkAvailable(int len) {
+		if (this.pos + len > length) {
+			throw new RuntimeException("missing bytes left " + (length - this.pos) + " but needed " + len + " bytes") ;
+		}
+	}
+	
 	public void skip(int len) {
 		if (this.pos + len <= length) {
 			this.pos += len ;
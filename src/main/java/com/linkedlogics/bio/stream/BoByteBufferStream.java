@@ -0,0 +1,258 @@
+package com.linkedlogics.bio.stream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.linkedlogics.bio.BioHasher;
+import com.linkedlogics.bio.utility.ByteUtility;
+
+/**
+ * Output stream writing directly into a {@link java.nio.ByteBuffer} (heap or direct) so that encoded bytes can be written
+ * straight into NIO socket buffers or memory mapped files without an intermediate heap array. 
+ * If stream is created over a given buffer then it is not expandable and {@link java.nio.BufferOverflowException} is thrown 
+ * when there is no space left, otherwise it allocates a new buffer of same kind when needed. 
+ * Stream writes through a duplicate of given buffer so that its byte order is not changed, position of given buffer 
+ * is moved after written bytes only by {@link #flush()} or {@link #close()}
+ * @author rdavudov
+ *
+ */
+public class BoByteBufferStream extends BoFastStream {
+	private ByteBuffer buffer ;
+	/**
+	 * Buffer given by caller whose position is moved on flush, null if stream has its own buffer
+	 */
+	private ByteBuffer target ;
+	private int start ;
+	private boolean isExpandable ;
+	
+	/**
+	 * Creates stream over given buffer starting from its current position
+	 * @param buffer
+	 */
+	public BoByteBufferStream(ByteBuffer buffer) {
+		super(0) ;
+		this.target = buffer ;
+		this.buffer = buffer.duplicate().order(ByteOrder.BIG_ENDIAN) ;
+		this.start = buffer.position() ;
+	}
+	
+	/**
+	 * Creates expandable stream with its own buffer
+	 * @param length
+	 * @param isDirect
+	 */
+	public BoByteBufferStream(int length, boolean isDirect) {
+		this(isDirect ? ByteBuffer.allocateDirect(length) : ByteBuffer.allocate(length)) ;
+		this.target = null ;
+		this.isExpandable = true ;
+	}
+	
+	/**
+	 * Returns buffer which is written, for a given buffer it is its big endian duplicate and if stream is expandable 
+	 * it can be a different buffer than initial one
+	 * @return
+	 */
+	public ByteBuffer getByteBuffer() {
+		return buffer ;
+	}
+	
+	/**
+	 * Moves position of given buffer after written bytes
+	 */
+	@Override
+	public void flush() {
+		if (target != null) {
+			target.position(buffer.position()) ;
+		}
+	}
+	
+	@Override
+	public void close() {
+		flush() ;
+	}
+	
+	private void checkBuffer(int byteCount) {
+		if (isExpandable && buffer.remaining() < byteCount) {
+			int newLength = buffer.capacity() * 2;
+			if (newLength < buffer.position() + byteCount)
+				newLength = buffer.position() + byteCount + buffer.capacity();
+			ByteBuffer newBuffer = buffer.isDirect() ? ByteBuffer.allocateDirect(newLength) : ByteBuffer.allocate(newLength) ;
+			buffer.flip() ;
+			newBuffer.put(buffer) ;
+			buffer = newBuffer ;
+		}
+	}
+	
+	@Override
+	public byte[] getBytes() {
+		return getBytes(0, getSize()) ;
+	}
+	
+	@Override
+	public byte[] toByteArray() {
+		return getBytes(0, getSize()) ;
+	}
+	
+	@Override
+	public byte[] getBytes(int offset, int length) {
+		byte[] res = new byte[length] ;
+		ByteBuffer duplicate = buffer.duplicate() ;
+		duplicate.position(start + offset) ;
+		duplicate.get(res) ;
+		return res ;
+	}
+	
+	@Override
+	public long getHash() {
+		if (buffer.hasArray()) {
+			return BioHasher.hash(buffer.array(), buffer.arrayOffset() + start, getSize()) ;
+		}
+		return BioHasher.hash(getBytes(0, getSize()), 0, getSize()) ;
+	}
+	
+	@Override
+	public void copyTo(byte[] target, int offset) {
+		ByteBuffer duplicate = buffer.duplicate() ;
+		duplicate.position(start) ;
+		duplicate.get(target, offset, getSize()) ;
+	}
+	
+	@Override
+	public void writeTo(OutputStream out) throws IOException {
+		if (buffer.hasArray()) {
+			out.write(buffer.array(), buffer.arrayOffset() + start, getSize()) ;
+		} else {
+			out.write(getBytes()) ;
+		}
+	}
+	
+	@Override
+	public int getSize() {
+		return buffer.position() - start ;
+	}
+	
+	@Override
+	public int getCapacity() {
+		return buffer.capacity() - start ;
+	}
+	
+	@Override
+	public void reset() {
+		buffer.position(start) ;
+	}
+	
+	@Override
+	public void reset(int position) {
+		buffer.position(start + position) ;
+		truncateStringTable(position) ;
+	}
+	
+	@Override
+	public void writeByte(int position, byte b) {
+		buffer.put(start + position, b) ;
+	}
+	
+	@Override
+	public void write(int b) {
+		checkBuffer(1) ;
+		buffer.put((byte) b) ;
+	}
+	
+	@Override
+	public void write(byte[] b, int off, int len) {
+		checkBuffer(len) ;
+		buffer.put(b, off, len) ;
+	}
+	
+	@Override
+	public void writeShort(int value) {
+		checkBuffer(2) ;
+		buffer.putShort((short) value) ;
+	}
+	
+	@Override
+	public void writeInt(int value) {
+		checkBuffer(4) ;
+		buffer.putInt(value) ;
+	}
+	
+	@Override
+	public void writeLong(long value) {
+		checkBuffer(8) ;
+		buffer.putLong(value) ;
+	}
+	
+	@Override
+	public void writeFloat(float value) {
+		checkBuffer(4) ;
+		buffer.putFloat(value) ;
+	}
+	
+	@Override
+	public void writeDouble(double value) {
+		checkBuffer(8) ;
+		buffer.putDouble(value) ;
+	}
+	
+	@Override
+	protected void writeLongs(long[] value) {
+		checkBuffer(value.length << 3) ;
+		buffer.asLongBuffer().put(value) ;
+		buffer.position(buffer.position() + (value.length << 3)) ;
+	}
+	
+	@Override
+	protected void writeInts(int[] value) {
+		checkBuffer(value.length << 2) ;
+		buffer.asIntBuffer().put(value) ;
+		buffer.position(buffer.position() + (value.length << 2)) ;
+	}
+	
+	@Override
+	protected void writeDoubles(double[] value) {
+		checkBuffer(value.length << 3) ;
+		buffer.asDoubleBuffer().put(value) ;
+		buffer.position(buffer.position() + (value.length << 3)) ;
+	}
+	
+	@Override
+	protected void writeAsciiBytes(String value) {
+		checkBuffer(value.length()) ;
+		if (buffer.hasArray() && buffer.remaining() >= value.length()) {
+			ByteUtility.asciiStringToBytes(value, buffer.array(), buffer.arrayOffset() + buffer.position()) ;
+			buffer.position(buffer.position() + value.length()) ;
+		} else {
+			for (int i = 0; i < value.length(); i++) {
+				buffer.put((byte) value.charAt(i)) ;
+			}
+		}
+	}
+	
+	@Override
+	protected int writeUtfBytes(String value) {
+		if (buffer.hasArray() && buffer.remaining() >= value.length() * 3) {
+			int length = ByteUtility.utfStringToBytes(value, buffer.array(), buffer.arrayOffset() + buffer.position()) ;
+			buffer.position(buffer.position() + length) ;
+			return length ;
+		}
+		// direct buffers and buffers without enough space for worst case are written from encoded array
+		byte[] bytes = ByteUtility.utfStringToBytes(value) ;
+		write(bytes) ;
+		return bytes.length ;
+	}
+	
+	@Override
+	public int reserveIntLength() {
+		checkBuffer(4) ;
+		int position = getSize() ;
+		buffer.position(buffer.position() + 4) ;
+		return position ;
+	}
+	
+	@Override
+	public void writeIntLength(int position, int length) {
+		buffer.putInt(start + position, length) ;
+	}
+}
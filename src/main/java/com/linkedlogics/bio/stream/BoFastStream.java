@@ -4,8 +4,14 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map.Entry;
 
+import com.linkedlogics.bio.BioDictionary;
+import com.linkedlogics.bio.BioHasher;
+import com.linkedlogics.bio.BioJavaObjectCodec;
 import com.linkedlogics.bio.BioObject;
 import com.linkedlogics.bio.dictionary.BioObj;
 import com.linkedlogics.bio.dictionary.BioTag;
@@ -16,7 +22,8 @@ import com.linkedlogics.bio.utility.ConversionUtility;
 /**
  * Why it is fast ? because it only allocates one big byte array and when converting values into bytes just passes
  * this big array and appropriate index to mainly ByteUtility class which just adds new bytes without creating new
- * byte array each time for each value
+ * byte array each time for each value. All other writes are built on top of primitive writes such as {@link #write(int)}, 
+ * {@link #writeInt(int)} etc. so that subclasses can target other storages by overriding only them (see {@link BoByteBufferStream})
  * @author rdavudov
  *
  */
@@ -27,6 +34,9 @@ public class BoFastStream extends OutputStream {
 	private int pos;
 	private int length;
 	private boolean isLengthAsInt ;
+	private boolean isCompact ;
+	private StringTable stringTable ;
+	private boolean isCanonical ;
 	
 	public BoFastStream() {
 		length = 256 ;
@@ -45,6 +55,52 @@ public class BoFastStream extends OutputStream {
 	public void setLengthAsInt(boolean isLengthAsInt) {
 		this.isLengthAsInt = isLengthAsInt;
 	}
+	
+	/**
+	 * Indicates whether compact format is used where tag info is packed into one byte and tag codes, lengths and integral values are varints
+	 * @return
+	 */
+	public boolean isCompact() {
+		return isCompact;
+	}
+
+	public void setCompact(boolean isCompact) {
+		this.isCompact = isCompact;
+	}
+	
+	/**
+	 * Indicates whether canonical format is used where properties are written in order of their keys, 
+	 * so that equal properties are always written as the same bytes
+	 * @return
+	 */
+	public boolean isCanonical() {
+		return isCanonical;
+	}
+
+	public void setCanonical(boolean isCanonical) {
+		this.isCanonical = isCanonical;
+	}
+	
+	/**
+	 * Indicates whether repeated strings are written as back references to their first occurrence
+	 * @return
+	 */
+	public boolean isStringTable() {
+		return stringTable != null ;
+	}
+	
+	/**
+	 * Starts a new string table at current position, all strings written after it are either literals or references
+	 * to earlier literals until table is disabled. Decoding stream must enable its table at the same position
+	 * (see {@link BiFastStream#enableStringTable()})
+	 */
+	public void enableStringTable() {
+		stringTable = new StringTable(getSize()) ;
+	}
+	
+	public void disableStringTable() {
+		stringTable = null ;
+	}
 
 	public byte[] getBytes() {
 		if (this.pos == this.length)
@@ -56,14 +112,88 @@ public class BoFastStream extends OutputStream {
 		}
 	}
 	
+	/**
+	 * Returns copy of written bytes, unlike {@link #getBytes()} it never returns internal buffer so stream can be reused safely
+	 * @return
+	 */
+	public byte[] toByteArray() {
+		return getBytes(0, this.pos) ;
+	}
+	
+	/**
+	 * Returns copy of part of written bytes
+	 * @param offset
+	 * @param length
+	 * @return
+	 */
+	public byte[] getBytes(int offset, int length) {
+		byte[] res = new byte[length];
+		System.arraycopy(this.buffer, offset, res, 0, length);
+		return res;
+	}
+	
+	/**
+	 * Copies all written bytes into given array starting from offset
+	 * @param target
+	 * @param offset
+	 */
+	public void copyTo(byte[] target, int offset) {
+		System.arraycopy(this.buffer, 0, target, offset, this.pos);
+	}
+	
+	/**
+	 * Writes all written bytes to given output stream without copying them
+	 * @param out
+	 * @throws IOException
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		out.write(this.buffer, 0, this.pos) ;
+	}
+	
 	public int getSize() {
 		return pos ;
 	}
 	
+	/**
+	 * Returns xxHash64 of written bytes without copying them (see {@link BioHasher#hash(byte[], int, int)}), 
+	 * with canonical format equal bio objects have equal hashes
+	 * @return
+	 */
+	public long getHash() {
+		return BioHasher.hash(buffer, 0, pos) ;
+	}
+	
+	/**
+	 * Returns current size of internal buffer
+	 * @return
+	 */
+	public int getCapacity() {
+		return length ;
+	}
+	
 	public void reset() {
 		pos = 0 ;
 	}
 	
+	/**
+	 * Moves write position back to given position, everything written after it is discarded
+	 * @param position
+	 */
+	public void reset(int position) {
+		pos = position ;
+		truncateStringTable(position) ;
+	}
+	
+	/**
+	 * Discards string table literals which are written at or after given position
+	 * @param position
+	 */
+	void truncateStringTable(int position) {
+		if (stringTable != null) {
+			stringTable.truncate(position - stringTable.getBase()) ;
+		}
+	}
+	
 	private void checkBuffer(int byteCount) {
 		if (this.pos + byteCount > this.length) {
 			int newLength = this.length * 2;
@@ -82,6 +212,15 @@ public class BoFastStream extends OutputStream {
 		this.buffer[this.pos++] = (byte)b;
 	}
 
+	/**
+	 * Overwrites a single byte at already written position
+	 * @param position
+	 * @param b
+	 */
+	public void writeByte(int position, byte b) {
+		this.buffer[position] = b;
+	}
+
 	@Override
 	public void write(byte[] b, int off, int len) {
 		this.checkBuffer(len);
@@ -94,28 +233,88 @@ public class BoFastStream extends OutputStream {
 		this.write(b, 0, b.length);
 	}
 
+	/**
+	 * Writes tag type and container (0 single, 1 array, 2 list). In compact format they are packed into one byte 
+	 * together with sign of tag code (super tags have negative codes)
+	 * @param tag
+	 * @param container
+	 */
+	public void writeTagInfo(BioTag tag, int container) {
+		writeTagInfo(tag, tag.getType(), container) ;
+	}
+	
+	/**
+	 * Writes tag info with given type instead of tag's type, used for markers which are not actual values
+	 * @param tag
+	 * @param type
+	 * @param container
+	 */
+	public void writeTagInfo(BioTag tag, BioType type, int container) {
+		if (isCompact) {
+			write(type.value() | container << 5 | (tag.getCode() < 0 ? 0x80 : 0)) ;
+		} else {
+			write(type.value()) ;
+			write(container) ;
+		}
+	}
+	
 	public void writeTag(BioTag tag) {
-		checkBuffer(2) ;
-		ByteUtility.shortToBytes(this.buffer, this.pos, (short) tag.getCode()) ;
-		this.pos += 2 ;
+		if (isCompact) {
+			// sign is already written in tag info
+			writeCompactShort(Math.abs(tag.getCode())) ;
+		} else {
+			writeShort(tag.getCode()) ;
+		}
+	}
+	
+	public void writeObjCode(int code) {
+		if (isCompact) {
+			writeCompactShort(code) ;
+		} else {
+			writeShort(code) ;
+		}
+	}
+	
+	public void writeObjVersion(int version) {
+		if (isCompact) {
+			writeCompactShort(version) ;
+		} else {
+			writeShort(version) ;
+		}
 	}
 	
 	public void writeLength(int length) {
-		if (isLengthAsInt) {
-			checkBuffer(4) ;
-			ByteUtility.intToBytes(this.buffer, this.pos, length) ;
-			this.pos += 4 ;
+		if (isCompact) {
+			writeVarInt(length) ;
+		} else if (isLengthAsInt) {
+			writeInt(length) ;
 		} else {
-			checkBuffer(2) ;
-			ByteUtility.shortToBytes(this.buffer, this.pos, (short) length) ;
-			this.pos += 2 ;
+			writeShort(length) ;
 		}
 	}
 	
 	public void writeIntLength(int length) {
+		writeInt(length) ;
+	}
+	
+	/**
+	 * Reserves 4 bytes for a length which is not known yet, it must be written later by {@link #writeIntLength(int, int)}
+	 * @return position of reserved length
+	 */
+	public int reserveIntLength() {
 		checkBuffer(4) ;
-		ByteUtility.intToBytes(this.buffer, this.pos, length) ;
+		int position = this.pos ;
 		this.pos += 4 ;
+		return position ;
+	}
+	
+	/**
+	 * Writes length into previously reserved position
+	 * @param position
+	 * @param length
+	 */
+	public void writeIntLength(int position, int length) {
+		ByteUtility.intToBytes(this.buffer, position, length) ;
 	}
 	
 	public void writeByte(BioTag tag, byte value) {
@@ -134,13 +333,73 @@ public class BoFastStream extends OutputStream {
 	}
 	
 	public void writeByte(Byte value) {
-		checkBuffer(1) ;
-		this.buffer[this.pos++] = value.byteValue() ;
+		write(value.byteValue()) ;
 	}
 	
 	public void writeInt(BioTag tag, int value) {
 		writeTag(tag) ;
-		writeInt(value) ;
+		writeIntValue(value) ;
+	}
+	
+	/**
+	 * Writes integer value, in compact format it is written as zig-zag varint so that small positive and negative values take less bytes
+	 * @param value
+	 */
+	public void writeIntValue(int value) {
+		if (isCompact) {
+			writeVarInt((value << 1) ^ (value >> 31)) ;
+		} else {
+			writeInt(value) ;
+		}
+	}
+	
+	/**
+	 * Writes long value, in compact format it is written as zig-zag varint
+	 * @param value
+	 */
+	public void writeLongValue(long value) {
+		if (isCompact) {
+			writeVarLong((value << 1) ^ (value >> 63)) ;
+		} else {
+			writeLong(value) ;
+		}
+	}
+	
+	/**
+	 * Writes unsigned varint, 7 bits per byte and highest bit indicates that more bytes follow
+	 * @param value
+	 */
+	public void writeVarInt(int value) {
+		while ((value & ~0x7F) != 0) {
+			write((value & 0x7F) | 0x80) ;
+			value >>>= 7 ;
+		}
+		write(value) ;
+	}
+	
+	/**
+	 * Writes unsigned long varint
+	 * @param value
+	 */
+	public void writeVarLong(long value) {
+		while ((value & ~0x7FL) != 0) {
+			write((int) (value & 0x7F) | 0x80) ;
+			value >>>= 7 ;
+		}
+		write((int) value) ;
+	}
+	
+	/**
+	 * Writes value between 0 and 32767 in 1 byte if it is less than 128 otherwise in 2 bytes with highest bit set, 
+	 * so it is never longer than a short
+	 * @param value
+	 */
+	public void writeCompactShort(int value) {
+		if (value < 0x80) {
+			write(value) ;
+		} else {
+			writeShort(0x8000 | value) ;
+		}
 	}
 	
 	public void writeInt(int value) {
@@ -163,7 +422,7 @@ public class BoFastStream extends OutputStream {
 	
 	public void writeLong(BioTag tag, long value) {
 		writeTag(tag) ;
-		writeLong(value) ;
+		writeLongValue(value) ;
 	}
 	
 	public void writeLong(long value) {
@@ -180,10 +439,49 @@ public class BoFastStream extends OutputStream {
 	public void writeLongArray(Long[] value) {
 		writeLength(value.length) ;
 		for (int i = 0; i < value.length; i++) {
-			writeLong(value[i]) ;
+			writeLongValue(value[i]) ;
+		}
+	}
+	
+	public void writeLongArray(BioTag tag, long[] value) {
+		writeTag(tag) ;
+		writeLongArray(value) ;
+	}
+	
+	public void writeLongArray(long[] value) {
+		writeLength(value.length) ;
+		if (isCompact) {
+			for (int i = 0; i < value.length; i++) {
+				writeLongValue(value[i]) ;
+			}
+		} else {
+			writeLongs(value) ;
 		}
 	}
 	
+	/**
+	 * Writes list of numbers as long array without creating a boxed array copy
+	 * @param tag
+	 * @param value
+	 */
+	public void writeLongList(BioTag tag, List<? extends Number> value) {
+		writeTag(tag) ;
+		writeLength(value.size()) ;
+		for (int i = 0; i < value.size(); i++) {
+			writeLongValue(value.get(i).longValue()) ;
+		}
+	}
+	
+	/**
+	 * Bulk copies longs into buffer
+	 * @param value
+	 */
+	protected void writeLongs(long[] value) {
+		checkBuffer(value.length << 3) ;
+		ByteBuffer.wrap(this.buffer, this.pos, value.length << 3).asLongBuffer().put(value) ;
+		this.pos += value.length << 3 ;
+	}
+	
 	public void writeDoubleArray(BioTag tag, Double[] value) {
 		writeTag(tag) ;
 		writeDoubleArray(value) ;
@@ -196,6 +494,39 @@ public class BoFastStream extends OutputStream {
 		}
 	}
 	
+	public void writeDoubleArray(BioTag tag, double[] value) {
+		writeTag(tag) ;
+		writeDoubleArray(value) ;
+	}
+	
+	public void writeDoubleArray(double[] value) {
+		writeLength(value.length) ;
+		writeDoubles(value) ;
+	}
+	
+	/**
+	 * Writes list of numbers as double array without creating a boxed array copy
+	 * @param tag
+	 * @param value
+	 */
+	public void writeDoubleList(BioTag tag, List<? extends Number> value) {
+		writeTag(tag) ;
+		writeLength(value.size()) ;
+		for (int i = 0; i < value.size(); i++) {
+			writeDouble(value.get(i).doubleValue()) ;
+		}
+	}
+	
+	/**
+	 * Bulk copies doubles into buffer
+	 * @param value
+	 */
+	protected void writeDoubles(double[] value) {
+		checkBuffer(value.length << 3) ;
+		ByteBuffer.wrap(this.buffer, this.pos, value.length << 3).asDoubleBuffer().put(value) ;
+		this.pos += value.length << 3 ;
+	}
+	
 	public void writeIntArray(BioTag tag, Integer[] value) {
 		writeTag(tag) ;
 		writeIntArray(value) ;
@@ -204,10 +535,49 @@ public class BoFastStream extends OutputStream {
 	public void writeIntArray(Integer[] value) {
 		writeLength(value.length) ;
 		for (int i = 0; i < value.length; i++) {
-			writeInt(value[i]) ;
+			writeIntValue(value[i]) ;
+		}
+	}
+	
+	public void writeIntArray(BioTag tag, int[] value) {
+		writeTag(tag) ;
+		writeIntArray(value) ;
+	}
+	
+	public void writeIntArray(int[] value) {
+		writeLength(value.length) ;
+		if (isCompact) {
+			for (int i = 0; i < value.length; i++) {
+				writeIntValue(value[i]) ;
+			}
+		} else {
+			writeInts(value) ;
 		}
 	}
 	
+	/**
+	 * Writes list of numbers as int array without creating a boxed array copy
+	 * @param tag
+	 * @param value
+	 */
+	public void writeIntList(BioTag tag, List<? extends Number> value) {
+		writeTag(tag) ;
+		writeLength(value.size()) ;
+		for (int i = 0; i < value.size(); i++) {
+			writeIntValue(value.get(i).intValue()) ;
+		}
+	}
+	
+	/**
+	 * Bulk copies ints into buffer
+	 * @param value
+	 */
+	protected void writeInts(int[] value) {
+		checkBuffer(value.length << 2) ;
+		ByteBuffer.wrap(this.buffer, this.pos, value.length << 2).asIntBuffer().put(value) ;
+		this.pos += value.length << 2 ;
+	}
+	
 	public void writeByteArray(BioTag tag, Byte[] value) {
 		writeTag(tag) ;
 		writeByteArray(value) ;
@@ -299,7 +669,22 @@ public class BoFastStream extends OutputStream {
 	}
 	
 	public void writeAsciiString(String value) {
-		writeLength(value.length()) ;
+		if (stringTable != null) {
+			if (writeStringReference(value, false)) {
+				return ;
+			}
+			writeVarInt(value.length() << 1) ;
+		} else {
+			writeLength(value.length()) ;
+		}
+		writeAsciiBytes(value) ;
+	}
+	
+	/**
+	 * Writes characters of ascii string without length
+	 * @param value
+	 */
+	protected void writeAsciiBytes(String value) {
 		checkBuffer(value.length()) ;
 		ByteUtility.asciiStringToBytes(value, buffer, pos) ;
 		pos+=value.length();
@@ -322,10 +707,115 @@ public class BoFastStream extends OutputStream {
 		writeUtfString(value) ;
 	}
 	
+	/**
+	 * Writes utf-8 bytes of string directly into buffer. Length prefix is reserved before characters are encoded and written after them, 
+	 * only if size of prefix can differ between shortest and longest possible utf-8 length then exact length is counted first
+	 * @param value
+	 */
 	public void writeUtfString(String value) {
-		byte[] bytes = ByteUtility.utfStringToBytes(value) ;
-		writeLength(bytes.length) ;
-		write(bytes) ;
+		final boolean isLiteral = stringTable != null ;
+		if (isLiteral && writeStringReference(value, true)) {
+			return ;
+		}
+		int lengthSize = getUtfLengthSize(value.length(), isLiteral) ;
+		if (lengthSize != getUtfLengthSize(value.length() * 3, isLiteral)) {
+			int length = ByteUtility.getUtfLength(value) ;
+			if (isLiteral) {
+				writeVarInt(length << 1) ;
+			} else {
+				writeLength(length) ;
+			}
+			writeUtfBytes(value) ;
+			return ;
+		}
+		int position = getSize() ;
+		for (int i = 0; i < lengthSize; i++) {
+			write(0) ;
+		}
+		int length = writeUtfBytes(value) ;
+		writeUtfLength(position, isLiteral ? length << 1 : length, isLiteral) ;
+	}
+	
+	/**
+	 * Writes utf-8 bytes of string without length
+	 * @param value
+	 * @return number of bytes written
+	 */
+	protected int writeUtfBytes(String value) {
+		checkBuffer(value.length() * 3) ;
+		int length = ByteUtility.utfStringToBytes(value, buffer, pos) ;
+		pos+=length ;
+		return length ;
+	}
+	
+	/**
+	 * Returns number of bytes used by length prefix of utf string
+	 * @param length
+	 * @param isLiteral if true length is a string table literal header
+	 * @return
+	 */
+	private int getUtfLengthSize(int length, boolean isLiteral) {
+		if (isLiteral) {
+			return getVarIntSize(length << 1) ;
+		} else if (isCompact) {
+			return getVarIntSize(length) ;
+		}
+		return isLengthAsInt ? 4 : 2 ;
+	}
+	
+	/**
+	 * Writes length prefix of utf string into its reserved bytes
+	 * @param position
+	 * @param length
+	 * @param isVarInt
+	 */
+	private void writeUtfLength(int position, int length, boolean isVarInt) {
+		if (isVarInt || isCompact) {
+			while ((length & ~0x7F) != 0) {
+				writeByte(position++, (byte) ((length & 0x7F) | 0x80)) ;
+				length >>>= 7 ;
+			}
+			writeByte(position, (byte) length) ;
+		} else if (isLengthAsInt) {
+			writeByte(position, (byte) (length >>> 24)) ;
+			writeByte(position + 1, (byte) (length >>> 16)) ;
+			writeByte(position + 2, (byte) (length >>> 8)) ;
+			writeByte(position + 3, (byte) length) ;
+		} else {
+			writeByte(position, (byte) (length >>> 8)) ;
+			writeByte(position + 1, (byte) length) ;
+		}
+	}
+	
+	/**
+	 * Writes reference to earlier literal of the same string if there is one and reference is shorter than literal, 
+	 * otherwise registers current position as literal if string is seen first time
+	 * @param value
+	 * @param isUtf
+	 * @return true if reference is written
+	 */
+	private boolean writeStringReference(String value, boolean isUtf) {
+		int position = getSize() - stringTable.getBase() ;
+		int literal = stringTable.getOrAdd(value, isUtf, position) ;
+		if (literal < 0) {
+			return false ;
+		}
+		int reference = literal << 1 | 1 ;
+		// literal takes at least one byte of header and one byte per character
+		if (getVarIntSize(reference) > value.length()) {
+			return false ;
+		}
+		writeVarInt(reference) ;
+		return true ;
+	}
+	
+	private static int getVarIntSize(int value) {
+		int size = 1 ;
+		while ((value & ~0x7F) != 0) {
+			value >>>= 7 ;
+			size++ ;
+		}
+		return size ;
 	}
 	
 	public void writeUtfStringArray(BioTag tag, String[] value) {
@@ -345,7 +835,24 @@ public class BoFastStream extends OutputStream {
 		writeObject(object) ;
 	}
 	
+	/**
+	 * Writes java object, if there is a codec for its class it is written as codec id followed by codec bytes
+	 * otherwise java serialization is used
+	 * @param object
+	 */
 	public void writeObject(Object object) {
+		BioJavaObjectCodec codec = BioDictionary.getJavaObjectCodec(object.getClass()) ;
+		if (codec != null) {
+			int length = codec.getLength(object) ;
+			writeLength(length + 1) ;
+			write(codec.getId()) ;
+			int position = getSize() ;
+			codec.write(this, object) ;
+			if (getSize() - position != length) {
+				throw new RuntimeException("java object codec " + codec.getId() + " wrote " + (getSize() - position) + " bytes instead of " + length) ;
+			}
+			return ;
+		}
 		try {
 			ByteArrayOutputStream bytesOut = new ByteArrayOutputStream() ;
 			ObjectOutputStream out = new ObjectOutputStream(bytesOut) ;
@@ -380,31 +887,45 @@ public class BoFastStream extends OutputStream {
 	
 	public void writeProperties(final BioObj object, BioObject properties) {
 		writeLength(properties.size()) ;
-		for(Entry<String, Object> e : properties.entries()) {
+		Iterable<Entry<String, Object>> entries = properties.entries() ;
+		if (isCanonical) {
+			ArrayList<Entry<String, Object>> sorted = new ArrayList<Entry<String, Object>>(properties.entries()) ;
+			sorted.sort(Entry.comparingByKey());
+			entries = sorted ;
+		}
+		for(Entry<String, Object> e : entries) {
 			String key = e.getKey() ;
 			Object value = e.getValue() ;
 			boolean isArray = value.getClass().isArray() ;
+			boolean isPrimitiveArray = BioObject.isPrimitiveArray(value) ;
 			BioType primitiveType = ConversionUtility.getType(value) ;
 			writeAsciiString(key) ;
 			write((byte)(primitiveType.value())) ;
-			write(isArray ? (byte) 1 : (byte) 0) ;
+			// primitive arrays are marked with 2 so that they are read back without boxing
+			write(isPrimitiveArray ? (byte) 2 : isArray ? (byte) 1 : (byte) 0) ;
 			switch (primitiveType) {
 			case Long:
-				if (isArray) {
+				if (isPrimitiveArray) {
+					writeLongArray((long[]) value) ;
+				} else if (isArray) {
 					writeLongArray((Long[]) value) ;
 				} else {
-					writeLong((Long) value) ;
+					writeLongValue((Long) value) ;
 				}
 				break;
 			case Integer:
-				if (isArray) {
+				if (isPrimitiveArray) {
+					writeIntArray((int[]) value) ;
+				} else if (isArray) {
 					writeIntArray((Integer[]) value) ;
 				} else {
-					writeInt((Integer) value) ;
+					writeIntValue((Integer) value) ;
 				}
 				break;
 			case Double:
-				if (isArray) {
+				if (isPrimitiveArray) {
+					writeDoubleArray((double[]) value) ;
+				} else if (isArray) {
 					writeDoubleArray((Double[])value) ;
 				} else {
 					writeDouble((Double)value) ;
@@ -445,6 +966,13 @@ public class BoFastStream extends OutputStream {
 					writeAsciiString((String) value) ;
 				}
 				break;
+			case JavaObject:
+				if (isArray) {
+					writeObjectArray((Object[]) value) ;
+				} else {
+					writeObject(value) ;
+				}
+				break;
 			case Unknown:
 				break;
 			}
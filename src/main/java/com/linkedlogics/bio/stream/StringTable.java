@@ -0,0 +1,80 @@
+package com.linkedlogics.bio.stream;
+
+import java.util.HashMap;
+
+/**
+ * Per payload table of string values. First occurrence of a string is written as a literal and its position (relative to
+ * start of payload) is remembered, next occurrences are written as back references to that position. Header of every string
+ * is a varint which is either length shifted left by one for literals or position shifted left by one and marked with lowest
+ * bit for references. Since references are positions rather than indexes they can be resolved from any place of payload,
+ * so lazy, projected and skipped reads work without reading preceding strings. On read side decoded strings are cached
+ * by their positions so that all occurrences of the same value share one instance
+ * @author rdavudov
+ *
+ */
+class StringTable {
+	private final int base ;
+	private HashMap<String, Integer> asciiPositions ;
+	private HashMap<String, Integer> utfPositions ;
+	private HashMap<Integer, String> strings ;
+
+	StringTable(int base) {
+		this.base = base ;
+	}
+
+	int getBase() {
+		return base ;
+	}
+
+	/**
+	 * Returns position of earlier literal of the same value or registers given position as literal of value
+	 * @param value
+	 * @param isUtf
+	 * @param position relative position where value will be written
+	 * @return position of earlier literal or -1 if there is none
+	 */
+	int getOrAdd(String value, boolean isUtf, int position) {
+		HashMap<String, Integer> positions ;
+		if (isUtf) {
+			positions = utfPositions != null ? utfPositions : (utfPositions = new HashMap<String, Integer>()) ;
+		} else {
+			positions = asciiPositions != null ? asciiPositions : (asciiPositions = new HashMap<String, Integer>()) ;
+		}
+		Integer literal = positions.putIfAbsent(value, position) ;
+		return literal != null ? literal : -1 ;
+	}
+
+	/**
+	 * Forgets literals written at or after given relative position because they are discarded from stream
+	 * @param position
+	 */
+	void truncate(int position) {
+		if (asciiPositions != null) {
+			asciiPositions.values().removeIf(p -> p >= position) ;
+		}
+		if (utfPositions != null) {
+			utfPositions.values().removeIf(p -> p >= position) ;
+		}
+	}
+
+	/**
+	 * Returns decoded string of literal at given relative position
+	 * @param position
+	 * @return
+	 */
+	String get(int position) {
+		return strings != null ? strings.get(position) : null ;
+	}
+
+	/**
+	 * Caches decoded string of literal at given relative position
+	 * @param position
+	 * @param value
+	 */
+	void put(int position, String value) {
+		if (strings == null) {
+			strings = new HashMap<Integer, String>() ;
+		}
+		strings.put(position, value) ;
+	}
+}
@@ -5,11 +5,11 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.io.UnsupportedEncodingException;
 import java.net.Inet4Address;
 import java.net.Inet6Address;
 import java.net.InetAddress;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 
 /**
@@ -106,18 +106,89 @@ public class ByteUtility {
         return b;
     }
 
+    /**
+     * Copies low bytes of characters into given array, with compact strings it is a plain array copy
+     * @param str
+     * @param result
+     * @param offset
+     * @return
+     */
+    @SuppressWarnings("deprecation")
     public static byte[] getBytesFast(String str, byte[] result, int offset) {
-        for (int j = 0; j < str.length(); j++)
-            result[offset + j] = (byte) str.charAt(j);
+        str.getBytes(0, str.length(), result, offset);
         return result;
     }
 
     public static byte[] utfStringToBytes(String value) {
-        try {
-            return value.getBytes("utf-8");
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException(e);
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encodes string as utf-8 into given array which must have space for 3 bytes per character. Leading ascii characters
+     * (all of them for ascii strings) are copied in bulk, unpaired surrogates are written as '?' same as {@link String#getBytes(java.nio.charset.Charset)}
+     * @param value
+     * @param result
+     * @param offset
+     * @return number of bytes written
+     */
+    @SuppressWarnings("deprecation")
+    public static int utfStringToBytes(String value, byte[] result, int offset) {
+        final int length = value.length();
+        int i = 0;
+        while (i < length && value.charAt(i) < 0x80) {
+            i++;
         }
+        value.getBytes(0, i, result, offset);
+        int p = offset + i;
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                result[p++] = (byte) c;
+            } else if (c < 0x800) {
+                result[p++] = (byte) (0xC0 | (c >> 6));
+                result[p++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    result[p++] = (byte) (0xF0 | (codePoint >> 18));
+                    result[p++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    result[p++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    result[p++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else {
+                    result[p++] = (byte) '?';
+                }
+            } else {
+                result[p++] = (byte) (0xE0 | (c >> 12));
+                result[p++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                result[p++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return p - offset;
+    }
+
+    /**
+     * Returns number of bytes of string encoded as utf-8 without encoding it
+     * @param value
+     * @return
+     */
+    public static int getUtfLength(String value) {
+        final int length = value.length();
+        int result = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x800) {
+                if (!Character.isSurrogate(c)) {
+                    result += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    // pair of chars takes 4 bytes
+                    result += 2;
+                    i++;
+                }
+            } else if (c >= 0x80) {
+                result += 1;
+            }
+        }
+        return result;
     }
 
     public static long bytesToLong(byte[] bytes) {
@@ -195,35 +266,28 @@ public class ByteUtility {
     }
 
     public static String bytesToAsciiString(byte[] bytes) {
-        try {
-            return new String(bytes, "us-ascii");
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
+        return bytesToAsciiString(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Creates string from one byte characters without charset decoding, with compact strings bytes are copied as they are.
+     * Bytes above 127 are decoded as Latin-1 characters, not as U+FFFD replacement characters like us-ascii charset did
+     * @param bytes
+     * @param offset
+     * @param length
+     * @return
+     */
+    @SuppressWarnings("deprecation")
     public static String bytesToAsciiString(byte[] bytes, int offset, int length) {
-        try {
-            return new String(bytes, offset, length, "us-ascii");
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException(e);
-        }
+        return new String(bytes, 0, offset, length);
     }
 
     public static String bytesToUtfString(byte[] bytes) {
-        try {
-            return new String(bytes, "utf-8");
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException(e);
-        }
+        return bytesToUtfString(bytes, 0, bytes.length);
     }
 
     public static String bytesToUtfString(byte[] bytes, int offset, int length) {
-        try {
-            return new String(bytes, offset, length, "utf-8");
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException(e);
-        }
+        return new String(bytes, offset, length, StandardCharsets.UTF_8);
     }
 
     public static String bytesToHex(final byte[] data) {
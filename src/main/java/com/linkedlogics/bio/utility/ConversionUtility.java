@@ -103,6 +103,12 @@ public class ConversionUtility {
                 return BioType.BioObject;
             } else if (value instanceof BioEnum[]) {
             	return BioType.BioEnum ;
+            } else if (value instanceof long[]) {
+                return BioType.Long;
+            } else if (value instanceof int[]) {
+                return BioType.Integer;
+            } else if (value instanceof double[]) {
+                return BioType.Double;
             } else {
                 return BioType.JavaObject;
             }
@@ -544,6 +550,22 @@ public class ConversionUtility {
     	return null ;
     }
     
+    /**
+     * Boxes primitive array (long[], int[], double[] etc.) into an object array
+     * @param array
+     * @return
+     */
+    public static Object[] toObjectArray(Object array) {
+    	int length = Array.getLength(array) ;
+    	Object[] result = (Object[]) Array.newInstance(array.getClass().getComponentType() == long.class ? Long.class 
+    			: array.getClass().getComponentType() == int.class ? Integer.class 
+    			: array.getClass().getComponentType() == double.class ? Double.class : Object.class, length) ;
+    	for (int i = 0; i < length; i++) {
+    		result[i] = Array.get(array, i) ;
+    	}
+    	return result ;
+    }
+    
     private static List<Object> convertArrayToList(Object[] array) {
     	ArrayList<Object> list = new ArrayList<Object>() ;
     	for (int i = 0; i < array.length; i++) {
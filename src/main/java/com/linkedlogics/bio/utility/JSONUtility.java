@@ -12,6 +12,7 @@ import org.json.JSONObject;
 import com.linkedlogics.bio.BioDictionary;
 import com.linkedlogics.bio.BioEnum;
 import com.linkedlogics.bio.BioExpression;
+import com.linkedlogics.bio.BioMap;
 import com.linkedlogics.bio.BioObject;
 import com.linkedlogics.bio.BioTime;
 import com.linkedlogics.bio.dictionary.BioObj;
@@ -106,8 +107,14 @@ public class JSONUtility {
 						jsonArray.put(array[i].getName());
 					}
 					json.put(e.getKey(), jsonArray);
-				} else if (e.getValue() instanceof Object[]) {
+				} else if (e.getValue() instanceof Object[] || BioObject.isPrimitiveArray(e.getValue())) {
 					json.put(e.getKey(), new JSONArray(e.getValue()));
+				} else if (e.getValue() instanceof BioMap) {
+					JSONArray jsonArray = new JSONArray();
+					for (BioObject value : ((BioMap) e.getValue()).values()) {
+						jsonArray.put(value.toJson());
+					}
+					json.put(e.getKey(), jsonArray);
 				} else if (e.getValue() instanceof List) {
 					JSONArray jsonArray = new JSONArray();
 					List list = (List) e.getValue();
@@ -1,6 +1,7 @@
 package com.linkedlogics.bio.utility;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.regex.Pattern;
@@ -8,6 +9,8 @@ import java.util.regex.Pattern;
 import com.linkedlogics.bio.BioDictionary;
 import com.linkedlogics.bio.BioEnum;
 import com.linkedlogics.bio.BioExpression;
+import com.linkedlogics.bio.BioList;
+import com.linkedlogics.bio.BioMap;
 import com.linkedlogics.bio.BioObject;
 import com.linkedlogics.bio.BioTime;
 import com.linkedlogics.bio.dictionary.BioEnumObj;
@@ -108,6 +111,11 @@ public class XMLUtility {
 	 * @param tag
 	 */
 	public static void toXml(StringBuilder xml, String tab, String key, Object value, BioType type, BioTag tag) {
+		if (value instanceof BioMap || value instanceof BioList) {
+			// keyed maps and sorted lists are exported as arrays of their bio objects
+			Collection<BioObject> values = value instanceof BioMap ? ((BioMap) value).values() : (BioList) value ;
+			value = values.toArray(new BioObject[values.size()]) ;
+		}
 		if (value instanceof BioObject[]) {
 			xml.append(tab).append(TAB).append("<").append(key)
 			.append(" type=\"").append(type)
@@ -124,8 +132,8 @@ public class XMLUtility {
 			.append("\" is-array=\"true\">")
 			.append(StringUtility.join(array))
 			.append("</").append(key).append(">\n");
-		} else if (value instanceof Object[]) {
-			Object[] array = (Object[]) value;
+		} else if (value instanceof Object[] || BioObject.isPrimitiveArray(value)) {
+			Object[] array = value instanceof Object[] ? (Object[]) value : ConversionUtility.toObjectArray(value) ;
 			xml.append(tab).append(TAB).append("<").append(key)
 			.append(" type=\"").append(type)
 			.append("\" is-array=\"true\">")